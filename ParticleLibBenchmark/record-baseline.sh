@@ -0,0 +1,25 @@
+#!/bin/sh
+# Runs all benchmarks and stores the results as the baseline of a commit
+#
+#   ./record-baseline.sh [commit] [JMH options]
+#
+# Without a commit the working tree is measured and named after HEAD. With one, the commit is checked out into a
+# temporary worktree and measured there, the results still land in this baseline/ directory.
+set -e
+cd "$(dirname "$0")"
+out="$(pwd)/baseline"
+
+if [ $# -gt 0 ] && git rev-parse --verify --quiet "$1^{commit}" > /dev/null; then
+    rev=$(git rev-parse --short "$1")
+    shift
+    tree=$(mktemp -d)
+    trap 'git worktree remove --force "$tree"' EXIT
+    git worktree add --detach "$tree" "$rev" > /dev/null
+    cd "$tree/ParticleLibBenchmark"
+else
+    rev=$(git rev-parse --short HEAD)
+fi
+
+mvn -q -f ../pom.xml install
+mvn -q package
+java -jar target/benchmarks.jar -rf json -rff "$out/$rev.json" "$@"
@@ -0,0 +1,92 @@
+package me.imodzombies4fun.particle.lib.benchmark;
+
+import me.imodzombies4fun.particle.lib.view.ConnectionCache;
+import me.imodzombies4fun.particle.lib.view.ParticleEngine;
+import me.imodzombies4fun.particle.lib.view.PlayerGrid;
+import me.imodzombies4fun.particle.lib.view.PlayerSnapshot;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.craftbukkit.v1_7_R4.CraftServer;
+import org.bukkit.craftbukkit.v1_7_R4.CraftWorld;
+import org.bukkit.craftbukkit.v1_7_R4.entity.CraftPlayer;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A headless server with one world and a configurable amount of players for the benchmarks
+ * <p/>
+ * Bukkit only accepts a server once per JVM, so the server is installed once and every benchmark replaces its players
+ * <p/>
+ * @author Connor
+ * @since 8/8/2015
+ * <p/>
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+public final class FakeServer {
+
+      private static CraftServer server;
+      private static World world;
+
+      // Prevent accidental construction
+      private FakeServer() {
+      }
+
+      /**
+       * Installs the server if needed and replaces its players
+       * <p/>
+       * The players are spread randomly, but the same for every run, over a square around the origin of the world
+       *
+       * @param players Amount of players
+       * @param spread  Length of the square the players are spread over
+       * @return The new players
+       */
+      public static synchronized List<Player> setUp(int players, double spread) {
+            if (server == null) {
+                  server = Fakes.create(CraftServer.class, new Class<?>[0]);
+                  Bukkit.setServer(server);
+                  world = Fakes.create(CraftWorld.class, new Class<?>[]{String.class}, "world");
+                  ParticleEngine.ParticlePacket.initialize();
+            }
+
+            Random random = new Random(players);
+            List<Player> online = new ArrayList<>(players);
+            for (int i = 0; i < players; i++) {
+                  CraftPlayer player = Fakes.create(CraftPlayer.class, new Class<?>[]{String.class, World.class}, "Player" + i, world);
+                  player.moveTo((random.nextDouble() - 0.5D) * spread, 64, (random.nextDouble() - 0.5D) * spread,
+                          random.nextFloat() * 360, 0);
+                  online.add(player);
+            }
+            server.setPlayers(online);
+
+            ConnectionCache.clear();
+            ConnectionCache.fill();
+            PlayerGrid.clear();
+            PlayerGrid.fill();
+            PlayerSnapshot.capture();
+            return online;
+      }
+
+      public static World getWorld() {
+            return world;
+      }
+
+      public static Location origin() {
+            return new Location(world, 0, 65, 0);
+      }
+}
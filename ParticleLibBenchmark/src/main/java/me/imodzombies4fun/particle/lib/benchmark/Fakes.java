@@ -0,0 +1,74 @@
+package me.imodzombies4fun.particle.lib.benchmark;
+
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import net.bytebuddy.dynamic.scaffold.subclass.ConstructorStrategy;
+import net.bytebuddy.implementation.ExceptionMethod;
+import net.bytebuddy.matcher.ElementMatchers;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Instantiates the abstract stand-ins for Bukkit interfaces
+ * <p/>
+ * The Bukkit interfaces have hundreds of methods of which the library only uses a few, so the stand-ins are abstract and
+ * get a generated subclass in their own package throwing {@link UnsupportedOperationException} from every other method.
+ * The subclasses are plain classes, calls on them cost the same as calls on hand written fakes
+ * <p/>
+ * @author Connor
+ * @since 8/8/2015
+ * <p/>
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+public final class Fakes {
+
+      private static final Map<Class<?>, Class<?>> implementations = new HashMap<>();
+
+      // Prevent accidental construction
+      private Fakes() {
+      }
+
+      /**
+       * Creates an instance of an abstract stand-in
+       *
+       * @param type           Abstract stand-in class
+       * @param parameterTypes Parameter types of the constructor to call
+       * @param arguments      Arguments of the constructor
+       * @return The instance
+       */
+      public static <T> T create(Class<T> type, Class<?>[] parameterTypes, Object... arguments) {
+            try {
+                  return type.cast(implementation(type).getConstructor(parameterTypes).newInstance(arguments));
+            } catch (ReflectiveOperationException exception) {
+                  throw new IllegalStateException("Failed to instantiate " + type.getName(), exception);
+            }
+      }
+
+      private static synchronized Class<?> implementation(Class<?> type) {
+            Class<?> implementation = implementations.get(type);
+            if (implementation == null) {
+                  implementation = new ByteBuddy()
+                          .subclass(type, ConstructorStrategy.Default.IMITATE_SUPER_CLASS_PUBLIC)
+                          .method(ElementMatchers.isAbstract())
+                          .intercept(ExceptionMethod.throwing(UnsupportedOperationException.class))
+                          .make()
+                          .load(type.getClassLoader(), ClassLoadingStrategy.Default.INJECTION)
+                          .getLoaded();
+                  implementations.put(type, implementation);
+            }
+            return implementation;
+      }
+}
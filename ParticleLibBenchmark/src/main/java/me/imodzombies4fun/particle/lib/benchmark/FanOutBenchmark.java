@@ -0,0 +1,82 @@
+package me.imodzombies4fun.particle.lib.benchmark;
+
+import me.imodzombies4fun.particle.lib.api.PointBuffer;
+import me.imodzombies4fun.particle.lib.task.generic.ShapeMesh;
+import me.imodzombies4fun.particle.lib.view.ParticleEngine;
+import me.imodzombies4fun.particle.lib.view.ParticleType;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sending the 36 points of a frame to a number of receivers
+ * <p/>
+ * {@link #perPoint()} sends every point on its own like before batched sends, {@link #batched()} sends the frame at once
+ * <p/>
+ * @author Connor
+ * @since 8/8/2015
+ * <p/>
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FanOutBenchmark {
+
+      @Param({"1", "10", "100"})
+      private int receivers;
+
+      private List<Player> players;
+      private World world;
+      private final PointBuffer buffer = new PointBuffer(36);
+
+      @Setup
+      public void setUp() {
+            players = FakeServer.setUp(receivers, 32);
+            world = FakeServer.getWorld();
+            buffer.reset(world, players);
+            ShapeMesh.ring(1, 10).translate(buffer, 0, 65, 0);
+      }
+
+      @Benchmark
+      public void perPoint() {
+            for (int i = 0; i < buffer.size(); i++) {
+                  Location center = new Location(world, buffer.getX(i), buffer.getY(i), buffer.getZ(i));
+                  ParticleEngine.display(ParticleType.FLAME, 0, 0, 0, 0, 1, center, players);
+            }
+      }
+
+      @Benchmark
+      public void batched() {
+            ParticleEngine.display(ParticleType.FLAME, 0, 0, 0, 0, 1, buffer, players);
+      }
+}
@@ -0,0 +1,81 @@
+package me.imodzombies4fun.particle.lib.benchmark;
+
+import me.imodzombies4fun.particle.lib.view.DisplayFilter;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finding the players within 16 blocks of a point among players spread over 512 by 512 blocks
+ * <p/>
+ * {@link #locationLoop()} is how the radius filter worked before the player grid, asking every online player for its location
+ * <p/>
+ * @author Connor
+ * @since 8/8/2015
+ * <p/>
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterBenchmark {
+
+      @Param({"100", "1000"})
+      private int players;
+
+      private Location center;
+
+      @Setup
+      public void setUp() {
+            FakeServer.setUp(players, 512);
+            center = FakeServer.origin();
+      }
+
+      @Benchmark
+      public List<Player> locationLoop() {
+            List<Player> nearby = new ArrayList<>();
+            for (Player player : Bukkit.getOnlinePlayers()) {
+                  Location location = player.getLocation();
+                  if (location.getWorld() == center.getWorld() && location.distanceSquared(center) <= 16 * 16) {
+                        nearby.add(player);
+                  }
+            }
+            return nearby;
+      }
+
+      @Benchmark
+      public Collection<? extends Player> radiusFilter() {
+            return DisplayFilter.RADIUS.filter(center, 16.0D);
+      }
+}
@@ -0,0 +1,92 @@
+package me.imodzombies4fun.particle.lib.benchmark;
+
+import me.imodzombies4fun.particle.lib.api.DisplayPoint;
+import me.imodzombies4fun.particle.lib.api.Particle;
+import me.imodzombies4fun.particle.lib.api.PointBuffer;
+import me.imodzombies4fun.particle.lib.task.generic.ShapeMesh;
+import me.imodzombies4fun.particle.lib.view.ParticleType;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.util.Vector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A solid spiral frame of 36 points sent to a number of receivers
+ * <p/>
+ * {@link #displayPoints()} builds the frame from a display point per point like the shapes did before the point buffer,
+ * {@link #pointBuffer()} fills a reused point buffer. Run with <code>-prof gc</code> to compare the allocation rate
+ * <p/>
+ * @author Connor
+ * @since 8/8/2015
+ * <p/>
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrameBenchmark {
+
+      @Param({"1", "10", "100"})
+      private int receivers;
+
+      private Particle particle;
+      private World world;
+      private List<Player> players;
+      private ShapeMesh ring;
+      private final PointBuffer buffer = new PointBuffer(36);
+
+      @Setup
+      public void setUp() {
+            players = FakeServer.setUp(receivers, 32);
+            world = FakeServer.getWorld();
+            particle = Particle.builder()
+                    .withType(ParticleType.FLAME)
+                    .withLocation(new DisplayPoint(FakeServer.origin(), players))
+                    .build();
+            ring = ShapeMesh.ring(1, 10);
+      }
+
+      @Benchmark
+      public void displayPoints() {
+            for (int deg = 0; deg < 360; deg += 10) {
+                  double cos = Math.cos(Math.toRadians(deg));
+                  double sin = Math.sin(Math.toRadians(deg));
+                  particle.send(new DisplayPoint(world, new Vector(cos, 65, sin), players));
+            }
+      }
+
+      @Benchmark
+      public void pointBuffer() {
+            buffer.reset(world, players);
+            ring.translate(buffer, 0, 65, 0);
+            particle.send(buffer);
+      }
+}
@@ -0,0 +1,96 @@
+package me.imodzombies4fun.particle.lib.benchmark;
+
+import me.imodzombies4fun.particle.lib.view.ParticleEngine;
+import me.imodzombies4fun.particle.lib.view.ParticleType;
+import me.imodzombies4fun.particle.lib.view.ReflectionUtil;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building and sending a single particle packet to one player
+ * <p/>
+ * {@link #legacyReflection()} reproduces the packet path before the field handles and prototypes, looking up every field by
+ * name through {@link ReflectionUtil} for every packet
+ * <p/>
+ * @author Connor
+ * @since 8/8/2015
+ * <p/>
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PacketBuildBenchmark {
+
+      private Player player;
+      private Location center;
+
+      private Constructor<?> packetConstructor;
+      private Method getHandle;
+      private Field playerConnection;
+      private Method sendPacket;
+
+      @Setup
+      public void setUp()
+              throws Exception {
+            player = FakeServer.setUp(1, 0).get(0);
+            center = FakeServer.origin();
+
+            packetConstructor = ReflectionUtil.getConstructor(ReflectionUtil.PackageType.MINECRAFT_SERVER.getClass("PacketPlayOutWorldParticles"));
+            getHandle = ReflectionUtil.getMethod("CraftPlayer", ReflectionUtil.PackageType.CRAFTBUKKIT_ENTITY, "getHandle");
+            playerConnection = ReflectionUtil.getField("EntityPlayer", ReflectionUtil.PackageType.MINECRAFT_SERVER, false, "playerConnection");
+            sendPacket = ReflectionUtil.getMethod(playerConnection.getType(), "sendPacket", ReflectionUtil.PackageType.MINECRAFT_SERVER.getClass("Packet"));
+      }
+
+      @Benchmark
+      public Object legacyReflection()
+              throws Exception {
+            Object packet = packetConstructor.newInstance();
+            ReflectionUtil.setValue(packet, true, "a", ParticleType.FLAME.getName());
+            ReflectionUtil.setValue(packet, true, "b", (float) center.getX());
+            ReflectionUtil.setValue(packet, true, "c", (float) center.getY());
+            ReflectionUtil.setValue(packet, true, "d", (float) center.getZ());
+            ReflectionUtil.setValue(packet, true, "e", 0F);
+            ReflectionUtil.setValue(packet, true, "f", 0F);
+            ReflectionUtil.setValue(packet, true, "g", 0F);
+            ReflectionUtil.setValue(packet, true, "h", 0F);
+            ReflectionUtil.setValue(packet, true, "i", 1);
+            sendPacket.invoke(playerConnection.get(getHandle.invoke(player)), packet);
+            return packet;
+      }
+
+      @Benchmark
+      public void prototype() {
+            ParticleEngine.display(ParticleType.FLAME, 0, 0, 0, 0, 1, center, player);
+      }
+}
@@ -0,0 +1,127 @@
+package me.imodzombies4fun.particle.lib.benchmark;
+
+import me.imodzombies4fun.particle.lib.api.DisplayPoint;
+import me.imodzombies4fun.particle.lib.api.Particle;
+import me.imodzombies4fun.particle.lib.task.timed.ParticleScheduler;
+import me.imodzombies4fun.particle.lib.task.timed.ParticleTimedTask;
+import me.imodzombies4fun.particle.lib.view.ParticleType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One scheduler tick with many scheduled tasks whose frames do nothing, so only the scheduling itself is measured
+ * <p/>
+ * The delays of the tasks are spread from 1 to 20 ticks. {@link #legacyScan()} is the scheduler before the tick wheel,
+ * which compared every scheduled task against the clock each tick
+ * <p/>
+ * @author Connor
+ * @since 8/8/2015
+ * <p/>
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SchedulerTickBenchmark {
+
+      @Param({"10000", "100000"})
+      private int tasks;
+
+      private final List<ParticleTimedTask> scheduled = new ArrayList<>();
+      private final ConcurrentMap<IdleTask, Long> legacy = new ConcurrentHashMap<>();
+
+      @Setup
+      public void setUp() {
+            FakeServer.setUp(0, 0);
+            Particle particle = Particle.builder()
+                    .withType(ParticleType.FLAME)
+                    .withLocation(new DisplayPoint(FakeServer.origin()))
+                    .build();
+
+            for (int i = 0; i < tasks; i++) {
+                  IdleTask task = new IdleTask(particle);
+                  task.delay(1 + i % 20);
+                  ParticleScheduler.schedule(task);
+                  scheduled.add(task);
+                  legacy.put(task, System.currentTimeMillis() + task.delayMillis());
+            }
+            // Apply the queued schedules outside of the measurement
+            ParticleScheduler.tick();
+      }
+
+      @TearDown
+      public void tearDown() {
+            for (ParticleTimedTask task : scheduled) {
+                  ParticleScheduler.cancel(task);
+            }
+            scheduled.clear();
+            legacy.clear();
+            ParticleScheduler.tick();
+      }
+
+      @Benchmark
+      public void tick() {
+            ParticleScheduler.tick();
+      }
+
+      @Benchmark
+      public void legacyScan() {
+            long now = System.currentTimeMillis();
+            for (Map.Entry<IdleTask, Long> entry : legacy.entrySet()) {
+                  IdleTask task = entry.getKey();
+                  if (entry.getValue() <= now) {
+                        legacy.remove(task);
+                        legacy.put(task, now + task.delayMillis());
+
+                        task.preDisplay();
+                        task.display();
+                  }
+            }
+      }
+
+      private static final class IdleTask extends ParticleTimedTask {
+            private IdleTask(Particle particle) {
+                  super(particle);
+            }
+
+            private long delayMillis() {
+                  return delay * 50L;
+            }
+
+            @Override
+            public void run() {
+            }
+      }
+}
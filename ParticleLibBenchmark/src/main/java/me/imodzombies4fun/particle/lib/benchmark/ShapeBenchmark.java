@@ -0,0 +1,87 @@
+package me.imodzombies4fun.particle.lib.benchmark;
+
+import me.imodzombies4fun.particle.lib.api.PointBuffer;
+import me.imodzombies4fun.particle.lib.task.generic.ShapeMesh;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.annotations.AuxCounters;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Points generated per microsecond by every built-in shape, reported by the <code>points</code> counter
+ * <p/>
+ * Every shape is sampled at 4 points per block, the meshes are looked up from the cache like the shape tasks do
+ * <p/>
+ * @author Connor
+ * @since 8/8/2015
+ * <p/>
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShapeBenchmark {
+
+      @Param({"ring", "sphere", "helix", "cone", "line", "cuboid"})
+      private String shape;
+
+      private final PointBuffer buffer = new PointBuffer(256);
+
+      @Benchmark
+      public PointBuffer generate(Points points) {
+            ShapeMesh mesh = mesh();
+            buffer.reset(null, Collections.<Player>emptyList());
+            mesh.translate(buffer, 0, 64, 0);
+            points.points += mesh.size();
+            return buffer;
+      }
+
+      private ShapeMesh mesh() {
+            switch (shape) {
+                  case "ring":
+                        return ShapeMesh.circle(2, 50);
+                  case "sphere":
+                        return ShapeMesh.sphere(2, 201);
+                  case "helix":
+                        return ShapeMesh.helix(1, 3, 3, 78);
+                  case "cone":
+                        return ShapeMesh.cone(1, 2, 4);
+                  case "line":
+                        return ShapeMesh.line(0, 5, 0, 4);
+                  default:
+                        return ShapeMesh.cuboidEdges(2, 2, 2, 4);
+            }
+      }
+
+      @State(Scope.Thread)
+      @AuxCounters(AuxCounters.Type.OPERATIONS)
+      public static class Points {
+            public long points;
+      }
+}
@@ -0,0 +1,75 @@
+package me.imodzombies4fun.particle.lib.benchmark;
+
+import me.imodzombies4fun.particle.lib.api.PointBuffer;
+import me.imodzombies4fun.particle.lib.task.generic.ShapeMesh;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Computing the points of a solid spiral frame without sending them
+ * <p/>
+ * {@link #trigPerPoint()} is the loop the spiral ran before the shape meshes, {@link #meshTranslate()} translates the cached mesh
+ * <p/>
+ * @author Connor
+ * @since 8/8/2015
+ * <p/>
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TrigBenchmark {
+
+      private final PointBuffer buffer = new PointBuffer(36);
+      private ShapeMesh ring;
+
+      @Setup
+      public void setUp() {
+            ring = ShapeMesh.ring(2, 10);
+      }
+
+      @Benchmark
+      public PointBuffer trigPerPoint() {
+            buffer.reset(null, Collections.<Player>emptyList());
+            for (int deg = 0; deg < 360; deg += 10) {
+                  double cos = Math.cos(Math.toRadians(deg));
+                  double sin = Math.sin(Math.toRadians(deg));
+                  buffer.add(cos * 2, 64, sin * 2);
+            }
+            return buffer;
+      }
+
+      @Benchmark
+      public PointBuffer meshTranslate() {
+            buffer.reset(null, Collections.<Player>emptyList());
+            ring.translate(buffer, 0, 64, 0);
+            return buffer;
+      }
+}
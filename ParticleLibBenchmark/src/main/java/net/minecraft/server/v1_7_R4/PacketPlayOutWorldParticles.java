@@ -0,0 +1,49 @@
+package net.minecraft.server.v1_7_R4;
+
+/**
+ * Stand-in for the 1.7 particle packet with the same fields and constructors
+ * <p/>
+ * @author Connor
+ * @since 8/8/2015
+ * <p/>
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+public class PacketPlayOutWorldParticles extends Packet {
+
+      private String a;
+      private float b;
+      private float c;
+      private float d;
+      private float e;
+      private float f;
+      private float g;
+      private float h;
+      private int i;
+
+      public PacketPlayOutWorldParticles() {
+      }
+
+      public PacketPlayOutWorldParticles(String a, float b, float c, float d, float e, float f, float g, float h, int i) {
+            this.a = a;
+            this.b = b;
+            this.c = c;
+            this.d = d;
+            this.e = e;
+            this.f = f;
+            this.g = g;
+            this.h = h;
+            this.i = i;
+      }
+}
@@ -0,0 +1,31 @@
+package net.minecraft.server.v1_7_R4;
+
+/**
+ * Stand-in for the NMS player connection, which writes and flushes every packet like the server does
+ * <p/>
+ * @author Connor
+ * @since 8/8/2015
+ * <p/>
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+public class PlayerConnection {
+
+      public final NetworkManager networkManager = new NetworkManager();
+
+      public void sendPacket(Packet packet) {
+            networkManager.getChannel().write(packet);
+            networkManager.getChannel().flush();
+      }
+}
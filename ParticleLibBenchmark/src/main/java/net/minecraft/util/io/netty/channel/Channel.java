@@ -0,0 +1,54 @@
+package net.minecraft.util.io.netty.channel;
+
+/**
+ * Stand-in for the netty channel shaded into the 1.7 server, counting what is written to it
+ * <p/>
+ * @author Connor
+ * @since 8/8/2015
+ * <p/>
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+public class Channel {
+
+      private long written;
+      private long flushes;
+      private boolean writable = true;
+
+      public Channel write(Object message) {
+            ++written;
+            return this;
+      }
+
+      public Channel flush() {
+            ++flushes;
+            return this;
+      }
+
+      public boolean isWritable() {
+            return writable;
+      }
+
+      public void setWritable(boolean writable) {
+            this.writable = writable;
+      }
+
+      public long getWritten() {
+            return written;
+      }
+
+      public long getFlushes() {
+            return flushes;
+      }
+}
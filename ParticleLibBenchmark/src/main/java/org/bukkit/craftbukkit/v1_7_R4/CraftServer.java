@@ -0,0 +1,69 @@
+package org.bukkit.craftbukkit.v1_7_R4;
+
+import org.bukkit.Server;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Stand-in for the CraftBukkit server, only implementing what the library uses
+ * <p/>
+ * Its package is what the library reads the server version from, instances are created by {@link me.imodzombies4fun.particle.lib.benchmark.Fakes}
+ * <p/>
+ * @author Connor
+ * @since 8/8/2015
+ * <p/>
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+public abstract class CraftServer implements Server {
+
+      private final Logger logger = Logger.getLogger("ParticleLibBenchmark");
+      private List<Player> players = new ArrayList<>();
+
+      public CraftServer() {
+      }
+
+      public void setPlayers(List<Player> players) {
+            this.players = players;
+      }
+
+      @Override
+      public Collection<? extends Player> getOnlinePlayers() {
+            return players;
+      }
+
+      @Override
+      public Logger getLogger() {
+            return logger;
+      }
+
+      @Override
+      public String getName() {
+            return "ParticleLibBenchmark";
+      }
+
+      @Override
+      public String getVersion() {
+            return "1.7.10";
+      }
+
+      @Override
+      public String getBukkitVersion() {
+            return "1.7.10-R0.1-SNAPSHOT";
+      }
+}
@@ -0,0 +1,51 @@
+package org.bukkit.craftbukkit.v1_7_R4;
+
+import org.bukkit.World;
+
+import java.util.UUID;
+
+/**
+ * Stand-in for a CraftBukkit world in which every chunk is loaded
+ * <p/>
+ * @author Connor
+ * @since 8/8/2015
+ * <p/>
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+public abstract class CraftWorld implements World {
+
+      private final String name;
+      private final UUID uid;
+
+      public CraftWorld(String name) {
+            this.name = name;
+            this.uid = UUID.nameUUIDFromBytes(name.getBytes());
+      }
+
+      @Override
+      public String getName() {
+            return name;
+      }
+
+      @Override
+      public UUID getUID() {
+            return uid;
+      }
+
+      @Override
+      public boolean isChunkLoaded(int x, int z) {
+            return true;
+      }
+}
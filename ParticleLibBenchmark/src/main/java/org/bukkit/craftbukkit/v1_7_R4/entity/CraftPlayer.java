@@ -0,0 +1,99 @@
+package org.bukkit.craftbukkit.v1_7_R4.entity;
+
+import net.minecraft.server.v1_7_R4.EntityPlayer;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.UUID;
+
+/**
+ * Stand-in for a CraftBukkit player with a position and a NMS handle
+ * <p/>
+ * Like the real player, {@link #getLocation()} allocates a new location on every call
+ * <p/>
+ * @author Connor
+ * @since 8/8/2015
+ * <p/>
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+public abstract class CraftPlayer implements Player {
+
+      private final EntityPlayer handle = new EntityPlayer();
+      private final String name;
+      private final UUID uniqueId;
+      private World world;
+      private double x;
+      private double y;
+      private double z;
+      private float yaw;
+      private float pitch;
+
+      public CraftPlayer(String name, World world) {
+            this.name = name;
+            this.uniqueId = UUID.nameUUIDFromBytes(name.getBytes());
+            this.world = world;
+      }
+
+      public EntityPlayer getHandle() {
+            return handle;
+      }
+
+      public void moveTo(double x, double y, double z, float yaw, float pitch) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.yaw = yaw;
+            this.pitch = pitch;
+      }
+
+      @Override
+      public String getName() {
+            return name;
+      }
+
+      @Override
+      public UUID getUniqueId() {
+            return uniqueId;
+      }
+
+      @Override
+      public World getWorld() {
+            return world;
+      }
+
+      @Override
+      public Location getLocation() {
+            return new Location(world, x, y, z, yaw, pitch);
+      }
+
+      @Override
+      public Location getLocation(Location location) {
+            if (location != null) {
+                  location.setWorld(world);
+                  location.setX(x);
+                  location.setY(y);
+                  location.setZ(z);
+                  location.setYaw(yaw);
+                  location.setPitch(pitch);
+            }
+            return location;
+      }
+
+      @Override
+      public boolean isOnline() {
+            return true;
+      }
+}
@@ -1,7 +1,12 @@
 package me.imodzombies4fun.particle.lib;
 
 import lombok.Getter;
+import me.imodzombies4fun.particle.lib.metrics.MetricsCommand;
 import me.imodzombies4fun.particle.lib.task.timed.ParticleScheduler;
+import me.imodzombies4fun.particle.lib.view.BlockCache;
+import me.imodzombies4fun.particle.lib.view.ConnectionCache;
+import me.imodzombies4fun.particle.lib.view.LoadedChunks;
+import me.imodzombies4fun.particle.lib.view.PlayerGrid;
 import org.bukkit.plugin.java.JavaPlugin;
 
 /**
@@ -34,10 +39,23 @@ public class ParticleLibPlugin extends JavaPlugin {
       public void onEnable() {
             instance = this;
             particleScheduler = new ParticleScheduler();
+
+            getServer().getPluginManager().registerEvents(new ConnectionCache(), this);
+            ConnectionCache.fill();
+            getServer().getPluginManager().registerEvents(new PlayerGrid(), this);
+            PlayerGrid.fill();
+            getServer().getPluginManager().registerEvents(new LoadedChunks(), this);
+            LoadedChunks.fill();
+
+            getCommand("particlemetrics").setExecutor(new MetricsCommand());
       }
 
       @Override
       public void onDisable() {
             particleScheduler.shutdown();
+            ConnectionCache.clear();
+            PlayerGrid.clear();
+            LoadedChunks.clear();
+            BlockCache.clear();
       }
 }
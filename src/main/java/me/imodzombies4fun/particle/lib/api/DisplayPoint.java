@@ -3,6 +3,7 @@ package me.imodzombies4fun.particle.lib.api;
 import lombok.Getter;
 import lombok.Setter;
 import me.imodzombies4fun.particle.lib.view.DisplayFilter;
+import me.imodzombies4fun.particle.lib.view.ReceiverSet;
 import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.entity.Player;
@@ -38,14 +39,14 @@ public class DisplayPoint {
       private Vector location;
 
       @Getter
-      private Collection<? extends Player> players;
+      private ReceiverSet receivers;
 
       public DisplayPoint(World world) {
             this(world, new Vector(0, 0, 0));
       }
 
       public DisplayPoint(World world, Vector location) {
-            this(world, location, DisplayFilter.EVERYONE.filter(location.toLocation(world)));
+            this(world, location, ReceiverSet.of(DisplayFilter.EVERYONE));
       }
 
       public DisplayPoint(Location location) {
@@ -56,10 +57,30 @@ public class DisplayPoint {
             this(location.getWorld(), location.toVector(), filter);
       }
 
+      public DisplayPoint(Location location, DisplayFilter filter, Object... args) {
+            this(location.getWorld(), location.toVector(), ReceiverSet.of(filter, args));
+      }
+
       public DisplayPoint(World world, Vector location, Collection<? extends Player>  filter) {
+            this(world, location, ReceiverSet.of(filter));
+      }
+
+      public DisplayPoint(World world, Vector location, ReceiverSet receivers) {
             this.world = world;
             this.location = location;
-            this.players = filter;
+            this.receivers = receivers;
+      }
+
+      /**
+       * Returns the receivers of this point
+       * <p/>
+       * Filters are resolved lazily and shared with every point cloned from this one
+       *
+       * @return The receivers
+       * @see ReceiverSet#resolve(World, double, double, double)
+       */
+      public Collection<? extends Player> getPlayers() {
+            return receivers.resolve(world, location.getX(), location.getY(), location.getZ());
       }
 
       public Location bukkitLocation() {
@@ -67,8 +88,6 @@ public class DisplayPoint {
       }
 
       public DisplayPoint clone(Vector next) {
-            DisplayPoint newPoint = new DisplayPoint(world, location, players);
-            newPoint.location = next;
-            return newPoint;
+            return new DisplayPoint(world, next, receivers);
       }
 }
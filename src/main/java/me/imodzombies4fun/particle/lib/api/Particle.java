@@ -3,13 +3,18 @@ package me.imodzombies4fun.particle.lib.api;
 import com.google.common.base.Preconditions;
 import lombok.Getter;
 import lombok.Setter;
+import me.imodzombies4fun.particle.lib.metrics.ParticleMetrics;
 import me.imodzombies4fun.particle.lib.view.ParticleEngine;
 import me.imodzombies4fun.particle.lib.view.ParticleType;
-import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.bukkit.util.Vector;
 
-import static me.imodzombies4fun.particle.lib.view.ParticleEngine.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * @author Connor
@@ -32,7 +37,6 @@ import static me.imodzombies4fun.particle.lib.view.ParticleEngine.*;
 public class Particle {
 
       @Getter
-      @Setter
       private ParticleType display;
 
       @Getter
@@ -40,29 +44,33 @@ public class Particle {
       private DisplayPoint location;
 
       @Getter
-      @Setter
       private float offsetX, offsetY, offsetZ;
 
       @Getter
-      @Setter
       private Vector direction;
 
       @Getter
-      @Setter
       private int amount;
 
       @Getter
-      @Setter
       private float speed;
 
       @Getter
-      @Setter
       private ParticleEngine.ParticleData data;
 
       @Getter
-      @Setter
       private ParticleEngine.ParticleColor color;
 
+      private volatile ParticleEngine.PreparedParticle prepared;
+
+      // Scratch space of sendAll, one per thread since frames can be sent from the pipeline workers
+      private static final ThreadLocal<FrameGroups> frameGroups = new ThreadLocal<FrameGroups>() {
+            @Override
+            protected FrameGroups initialValue() {
+                  return new FrameGroups();
+            }
+      };
+
       private Particle(ParticleType type, DisplayPoint location, float offsetX, float offsetY, float offsetZ,
                        int amount, float speed, Vector direction,ParticleEngine.ParticleData data,
                        ParticleEngine.ParticleColor color) {
@@ -78,42 +86,161 @@ public class Particle {
             this.color = color;
       }
 
+      public void setDisplay(ParticleType display) {
+            this.display = display;
+            this.prepared = null;
+      }
+
+      public void setOffsetX(float offsetX) {
+            this.offsetX = offsetX;
+            this.prepared = null;
+      }
+
+      public void setOffsetY(float offsetY) {
+            this.offsetY = offsetY;
+            this.prepared = null;
+      }
+
+      public void setOffsetZ(float offsetZ) {
+            this.offsetZ = offsetZ;
+            this.prepared = null;
+      }
+
+      public void setDirection(Vector direction) {
+            this.direction = direction;
+            this.prepared = null;
+      }
+
+      public void setAmount(int amount) {
+            this.amount = amount;
+            this.prepared = null;
+      }
+
+      public void setSpeed(float speed) {
+            this.speed = speed;
+            this.prepared = null;
+      }
+
+      public void setData(ParticleEngine.ParticleData data) {
+            this.data = data;
+            this.prepared = null;
+      }
+
+      public void setColor(ParticleEngine.ParticleColor color) {
+            this.color = color;
+            this.prepared = null;
+      }
+
+      /**
+       * Returns the validated form of this particle which is actually sent
+       * <p/>
+       * It is resolved when the particle is built and again after one of its attributes changed. Changes to the
+       * {@link #getDirection() direction} vector itself are not noticed, set it again instead
+       *
+       * @return The prepared particle
+       * @see ParticleEngine#prepare(ParticleType, float, float, float, float, int, Vector, ParticleEngine.ParticleData, ParticleEngine.ParticleColor)
+       */
+      public ParticleEngine.PreparedParticle prepared() {
+            ParticleEngine.PreparedParticle prepared = this.prepared;
+            if (prepared == null) {
+                  prepared = ParticleEngine.prepare(display, offsetX, offsetY, offsetZ, speed, amount, direction, data, color);
+                  this.prepared = prepared;
+            }
+            return prepared;
+      }
+
       public void send() {
             this.send(this.location);
       }
 
       public void send(DisplayPoint spot) {
-            Location location = spot.bukkitLocation();
-            Player[] sendTo = spot.getPlayers().toArray(
-                    new Player[spot.getPlayers().size()]);
-
-            if (color != null) {
-                  display(display, color, location, sendTo);
+            Collection<? extends Player> players = spot.getPlayers();
+            if (players.isEmpty()) {
                   return;
             }
+            ParticleMetrics.countPoints(1);
+            prepared().display(spot.bukkitLocation(), new ArrayList<Player>(players));
+      }
+
+      /**
+       * Sends this particle at every point of a frame
+       * <p/>
+       * Points sharing the same receivers are sent together, so their receivers are only resolved once and
+       * every player gets all packets of the frame in one pass. Points nobody receives are skipped
+       *
+       * @param points Points of the frame
+       */
+      public void sendAll(List<DisplayPoint> points) {
+            FrameGroups groups = frameGroups.get();
+            try {
+                  for (DisplayPoint point : points) {
+                        // Receivers are resolved once per point, a second resolve could return another collection than the key
+                        Collection<? extends Player> players = point.getPlayers();
+                        if (players.isEmpty()) {
+                              continue;
+                        }
+                        PointBuffer buffer = groups.get(point.getWorld(), players);
+                        Vector vector = point.getLocation();
+                        buffer.add(vector.getX(), vector.getY(), vector.getZ());
+                  }
 
-            if (data != null) {
-                  if (direction != null) {
-                        display(display, data, direction, speed, location, sendTo);
-                        return;
-                  } else {
-                        display(display, data, offsetX, offsetY, offsetZ, speed, amount, location, sendTo);
-                        return;
+                  for (int i = 0; i < groups.used; i++) {
+                        send(groups.buffers.get(i));
                   }
+            } finally {
+                  groups.clear();
             }
+      }
 
-            if (direction != null) {
-                  display(display, direction, speed, location, sendTo);
+      /**
+       * Sends this particle at every point of a buffer
+       *
+       * @param points Points of the frame
+       */
+      public void send(PointBuffer points) {
+            if (points.isEmpty() || points.getPlayers().isEmpty()) {
                   return;
             }
+            ParticleMetrics.countPoints(points.size());
 
-            display(display, offsetX, offsetY, offsetZ, speed, amount, location, sendTo);
+            prepared().display(points, new ArrayList<Player>(points.getPlayers()));
       }
 
       public static Builder builder() {
             return new Builder();
       }
 
+      /**
+       * The point buffers of one {@link #sendAll(List)} call, grouped by their receivers and reused by the next call
+       */
+      private static final class FrameGroups {
+            private final Map<Collection<? extends Player>, PointBuffer> byPlayers = new IdentityHashMap<>();
+            private final List<PointBuffer> buffers = new ArrayList<>();
+            private int used;
+
+            private PointBuffer get(World world, Collection<? extends Player> players) {
+                  PointBuffer buffer = byPlayers.get(players);
+                  if (buffer == null) {
+                        if (used == buffers.size()) {
+                              buffers.add(new PointBuffer());
+                        }
+                        buffer = buffers.get(used++);
+                        buffer.reset(world, players);
+                        byPlayers.put(players, buffer);
+                  }
+                  return buffer;
+            }
+
+            private void clear() {
+                  // Drops the worlds and receivers, so no player is kept alive by an idle thread
+                  for (int i = 0; i < used; i++) {
+                        buffers.get(i).reset(null, null);
+                  }
+                  byPlayers.clear();
+                  used = 0;
+            }
+      }
+
       public static class Builder {
 
             private ParticleType type;
@@ -174,7 +301,9 @@ public class Particle {
             public Particle build() {
                   Preconditions.checkNotNull(type, "Must have a particle type to display");
                   Preconditions.checkNotNull(location, "Must have a location to display at");
-                  return new Particle(type, location, offsetX, offsetY, offsetZ, amount, speed, direction, data, color);
+                  Particle particle = new Particle(type, location, offsetX, offsetY, offsetZ, amount, speed, direction, data, color);
+                  particle.prepared();
+                  return particle;
             }
       }
 }
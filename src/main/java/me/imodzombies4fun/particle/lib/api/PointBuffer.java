@@ -0,0 +1,108 @@
+package me.imodzombies4fun.particle.lib.api;
+
+import lombok.Getter;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * A reusable set of points which share one world and one set of receivers
+ * <p/>
+ * The coordinates are kept in primitive columns, so a shape can fill the buffer every frame without allocating anything per point
+ * <p/>
+ * @author Connor
+ * @since 8/8/2015
+ * <p/>
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+public class PointBuffer {
+
+      @Getter
+      private World world;
+
+      @Getter
+      private Collection<? extends Player> players;
+
+      private double[] x;
+      private double[] y;
+      private double[] z;
+      private int size;
+
+      public PointBuffer() {
+            this(16);
+      }
+
+      public PointBuffer(int capacity) {
+            this.x = new double[capacity];
+            this.y = new double[capacity];
+            this.z = new double[capacity];
+      }
+
+      /**
+       * Empties this buffer and sets the world and receivers of the next points
+       *
+       * @param world   World of the points
+       * @param players Receivers of the points
+       */
+      public void reset(World world, Collection<? extends Player> players) {
+            this.world = world;
+            this.players = players;
+            this.size = 0;
+      }
+
+      /**
+       * Empties this buffer and takes the world and receivers of a point for the next points
+       *
+       * @param origin Point to take the world and receivers from
+       */
+      public void reset(DisplayPoint origin) {
+            reset(origin.getWorld(), origin.getPlayers());
+      }
+
+      public void add(double x, double y, double z) {
+            if (size == this.x.length) {
+                  int capacity = Math.max(16, size * 2);
+                  this.x = Arrays.copyOf(this.x, capacity);
+                  this.y = Arrays.copyOf(this.y, capacity);
+                  this.z = Arrays.copyOf(this.z, capacity);
+            }
+            this.x[size] = x;
+            this.y[size] = y;
+            this.z[size] = z;
+            ++size;
+      }
+
+      public double getX(int index) {
+            return x[index];
+      }
+
+      public double getY(int index) {
+            return y[index];
+      }
+
+      public double getZ(int index) {
+            return z[index];
+      }
+
+      public int size() {
+            return size;
+      }
+
+      public boolean isEmpty() {
+            return size == 0;
+      }
+}
@@ -0,0 +1,100 @@
+package me.imodzombies4fun.particle.lib.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of non-negative values in buckets of powers of two
+ * <p/>
+ * Recording a value costs a few atomic additions, percentiles are reported as the upper bound of the bucket they fall into
+ * <p/>
+ * @author Connor
+ * @since 8/8/2015
+ * <p/>
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+public final class Histogram {
+
+      private final AtomicLongArray buckets = new AtomicLongArray(64);
+      private final StripedCounter count = new StripedCounter();
+      private final StripedCounter sum = new StripedCounter();
+      private final AtomicLong max = new AtomicLong();
+
+      public void record(long value) {
+            value = Math.max(0, value);
+            buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(value));
+            count.increment();
+            sum.add(value);
+
+            long current;
+            while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+                  // Retry until the maximum is at least the value
+            }
+      }
+
+      public long getCount() {
+            return count.sum();
+      }
+
+      public long getSum() {
+            return sum.sum();
+      }
+
+      public long getMax() {
+            return max.get();
+      }
+
+      public double getMean() {
+            long count = getCount();
+            return count == 0 ? 0 : (double) getSum() / count;
+      }
+
+      /**
+       * Returns an upper bound of the value below which a share of the recorded values lie
+       *
+       * @param percentile Share of the values, between 0 and 1
+       * @return The upper bound of the bucket the percentile falls into
+       */
+      public long getPercentile(double percentile) {
+            long total = 0;
+            long[] counts = new long[64];
+            for (int i = 0; i < 64; i++) {
+                  counts[i] = buckets.get(i);
+                  total += counts[i];
+            }
+            if (total == 0) {
+                  return 0;
+            }
+
+            long rank = (long) Math.ceil(total * percentile);
+            long seen = 0;
+            for (int i = 0; i < 64; i++) {
+                  seen += counts[i];
+                  if (seen >= Math.max(1, rank)) {
+                        return i == 0 ? 0 : Math.min(getMax(), i == 63 ? Long.MAX_VALUE : (1L << i) - 1);
+                  }
+            }
+            return getMax();
+      }
+
+      public void reset() {
+            for (int i = 0; i < 64; i++) {
+                  buckets.set(i, 0);
+            }
+            count.reset();
+            sum.reset();
+            max.set(0);
+      }
+}
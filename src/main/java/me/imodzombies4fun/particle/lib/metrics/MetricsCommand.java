@@ -0,0 +1,61 @@
+package me.imodzombies4fun.particle.lib.metrics;
+
+import org.bukkit.ChatColor;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+
+/**
+ * Shows and controls the {@link ParticleMetrics} in game
+ * <p/>
+ * Usage: <code>/particlemetrics [on|off|reset]</code>
+ * <p/>
+ * @author Connor
+ * @since 8/8/2015
+ * <p/>
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+public class MetricsCommand implements CommandExecutor {
+
+      @Override
+      public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+            if (args.length > 0) {
+                  switch (args[0].toLowerCase()) {
+                        case "on":
+                              ParticleMetrics.setEnabled(true);
+                              sender.sendMessage(ChatColor.GREEN + "Particle metrics enabled");
+                              return true;
+                        case "off":
+                              ParticleMetrics.setEnabled(false);
+                              sender.sendMessage(ChatColor.GREEN + "Particle metrics disabled");
+                              return true;
+                        case "reset":
+                              ParticleMetrics.reset();
+                              sender.sendMessage(ChatColor.GREEN + "Particle metrics reset");
+                              return true;
+                        default:
+                              return false;
+                  }
+            }
+
+            if (!ParticleMetrics.isEnabled()) {
+                  sender.sendMessage(ChatColor.YELLOW + "Particle metrics are disabled, enable them with /" + label + " on");
+            }
+            for (String line : ParticleMetrics.report()) {
+                  sender.sendMessage(ChatColor.GRAY + line);
+            }
+            return true;
+      }
+}
@@ -0,0 +1,233 @@
+package me.imodzombies4fun.particle.lib.metrics;
+
+import me.imodzombies4fun.particle.lib.view.BlockCache;
+import me.imodzombies4fun.particle.lib.view.ParticleFlush;
+import me.imodzombies4fun.particle.lib.view.ParticleType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counters and histograms of the work done by the scheduler and the engine
+ * <p/>
+ * Metrics are disabled by default, while disabled every hook returns after reading a single volatile flag
+ * <p/>
+ * @author Connor
+ * @since 8/8/2015
+ * <p/>
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+public final class ParticleMetrics {
+
+      private static volatile boolean enabled;
+
+      private static final Histogram tickNanos = new Histogram();
+      private static final Histogram dueTasks = new Histogram();
+      private static final Histogram packetsPerReceiver = new Histogram();
+      private static final StripedCounter pointsGenerated = new StripedCounter();
+      private static final StripedCounter packetsBuilt = new StripedCounter();
+      private static final StripedCounter sends = new StripedCounter();
+      private static final StripedCounter culledSends = new StripedCounter();
+      private static final StripedCounter exceptions = new StripedCounter();
+      private static final AtomicLongArray packetsByType = new AtomicLongArray(ParticleType.values().length);
+      private static final ConcurrentMap<Class<?>, TaskMetrics> tasks = new ConcurrentHashMap<>();
+
+      // Prevent accidental construction
+      private ParticleMetrics() {
+      }
+
+      public static boolean isEnabled() {
+            return enabled;
+      }
+
+      public static void setEnabled(boolean enabled) {
+            ParticleMetrics.enabled = enabled;
+      }
+
+      /**
+       * Records a scheduler tick
+       *
+       * @param nanos Duration of the tick in nanoseconds
+       * @param due   Amount of tasks that were due at the tick
+       */
+      public static void recordTick(long nanos, int due) {
+            if (enabled) {
+                  tickNanos.record(nanos);
+                  dueTasks.record(due);
+            }
+      }
+
+      /**
+       * Records a frame of a task
+       *
+       * @param taskClass Class of the task
+       * @param nanos     Time the scheduler spent on the frame in nanoseconds
+       */
+      public static void recordFrame(Class<?> taskClass, long nanos) {
+            if (enabled) {
+                  TaskMetrics metrics = tasks.get(taskClass);
+                  if (metrics == null) {
+                        TaskMetrics created = new TaskMetrics();
+                        metrics = tasks.putIfAbsent(taskClass, created);
+                        if (metrics == null) {
+                              metrics = created;
+                        }
+                  }
+                  metrics.frameNanos.record(nanos);
+            }
+      }
+
+      public static void countPoints(int points) {
+            if (enabled) {
+                  pointsGenerated.add(points);
+            }
+      }
+
+      public static void countPacketsBuilt(ParticleType type, int packets) {
+            if (enabled) {
+                  packetsBuilt.add(packets);
+                  packetsByType.addAndGet(type.ordinal(), packets);
+            }
+      }
+
+      /**
+       * Records a send to a single receiver
+       *
+       * @param packets Amount of packets the receiver got
+       */
+      public static void countSend(int packets) {
+            if (enabled) {
+                  sends.increment();
+                  packetsPerReceiver.record(packets);
+            }
+      }
+
+      public static void countCulled() {
+            if (enabled) {
+                  culledSends.increment();
+            }
+      }
+
+      public static void countException() {
+            if (enabled) {
+                  exceptions.increment();
+            }
+      }
+
+      public static Histogram getTickNanos() {
+            return tickNanos;
+      }
+
+      public static Histogram getDueTasks() {
+            return dueTasks;
+      }
+
+      public static Histogram getPacketsPerReceiver() {
+            return packetsPerReceiver;
+      }
+
+      public static long getPointsGenerated() {
+            return pointsGenerated.sum();
+      }
+
+      public static long getPacketsBuilt() {
+            return packetsBuilt.sum();
+      }
+
+      public static long getPacketsBuilt(ParticleType type) {
+            return packetsByType.get(type.ordinal());
+      }
+
+      public static long getSends() {
+            return sends.sum();
+      }
+
+      public static long getCulledSends() {
+            return culledSends.sum();
+      }
+
+      public static long getExceptions() {
+            return exceptions.sum();
+      }
+
+      /**
+       * Returns the frame durations of a task class
+       *
+       * @param taskClass Class of the task
+       * @return The histogram of frame durations in nanoseconds, or <code>null</code> if no frame was recorded
+       */
+      public static Histogram getFrameNanos(Class<?> taskClass) {
+            TaskMetrics metrics = tasks.get(taskClass);
+            return metrics == null ? null : metrics.frameNanos;
+      }
+
+      public static void reset() {
+            tickNanos.reset();
+            dueTasks.reset();
+            packetsPerReceiver.reset();
+            pointsGenerated.reset();
+            packetsBuilt.reset();
+            sends.reset();
+            culledSends.reset();
+            exceptions.reset();
+            for (int i = 0; i < packetsByType.length(); i++) {
+                  packetsByType.set(i, 0);
+            }
+            tasks.clear();
+      }
+
+      /**
+       * Describes the current metrics in human readable lines
+       *
+       * @return The lines of the report
+       */
+      public static List<String> report() {
+            List<String> lines = new ArrayList<>();
+            lines.add(String.format("Tick: mean %.3f ms, p99 %.3f ms, max %.3f ms over %d ticks",
+                    tickNanos.getMean() / 1.0E6D, tickNanos.getPercentile(0.99D) / 1.0E6D, tickNanos.getMax() / 1.0E6D, tickNanos.getCount()));
+            lines.add(String.format("Due tasks per tick: mean %.1f, max %d", dueTasks.getMean(), dueTasks.getMax()));
+            lines.add(String.format("Points: %d, packets built: %d, culled sends: %d, exceptions: %d",
+                    getPointsGenerated(), getPacketsBuilt(), getCulledSends(), getExceptions()));
+            lines.add(String.format("Sends: %d, packets per receiver: mean %.1f, max %d",
+                    getSends(), packetsPerReceiver.getMean(), packetsPerReceiver.getMax()));
+            lines.add(String.format("Flush mode: %s, flushes: %d, saved: %d",
+                    ParticleFlush.getMode(), ParticleFlush.getFlushes(), ParticleFlush.getFlushesSaved()));
+            lines.add(String.format("Block cache: %d hits, %d misses (%.1f%% hit rate)",
+                    BlockCache.getHits(), BlockCache.getMisses(), BlockCache.getHitRate() * 100));
+            for (ParticleType type : ParticleType.values()) {
+                  long packets = getPacketsBuilt(type);
+                  if (packets > 0) {
+                        lines.add(String.format("  %s: %d packets", type.name(), packets));
+                  }
+            }
+            for (Map.Entry<Class<?>, TaskMetrics> entry : tasks.entrySet()) {
+                  Histogram frames = entry.getValue().frameNanos;
+                  lines.add(String.format("  %s: %d frames, mean %.3f ms", entry.getKey().getSimpleName(),
+                          frames.getCount(), frames.getMean() / 1.0E6D));
+            }
+            return lines;
+      }
+
+      /**
+       * Metrics recorded per task class
+       */
+      private static final class TaskMetrics {
+            private final Histogram frameNanos = new Histogram();
+      }
+}
@@ -0,0 +1,57 @@
+package me.imodzombies4fun.particle.lib.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A counter spread over several cells, so threads counting at the same time rarely update the same cell
+ * <p/>
+ * Every cell is padded to its own cache line, the value of the counter is the sum of all cells
+ * <p/>
+ * @author Connor
+ * @since 8/8/2015
+ * <p/>
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+public final class StripedCounter {
+
+      private static final int STRIPES = 8;
+      private static final int PADDING = 8;
+
+      private final AtomicLongArray cells = new AtomicLongArray(STRIPES * PADDING);
+
+      public void increment() {
+            add(1);
+      }
+
+      public void add(long value) {
+            long id = Thread.currentThread().getId();
+            int stripe = (int) (id ^ (id >>> 7)) & (STRIPES - 1);
+            cells.addAndGet(stripe * PADDING, value);
+      }
+
+      public long sum() {
+            long sum = 0;
+            for (int i = 0; i < STRIPES; i++) {
+                  sum += cells.get(i * PADDING);
+            }
+            return sum;
+      }
+
+      public void reset() {
+            for (int i = 0; i < STRIPES; i++) {
+                  cells.set(i * PADDING, 0);
+            }
+      }
+}
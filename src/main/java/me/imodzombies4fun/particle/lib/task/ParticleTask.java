@@ -1,6 +1,5 @@
 package me.imodzombies4fun.particle.lib.task;
 
-import com.google.common.base.Preconditions;
 import me.imodzombies4fun.particle.lib.api.Particle;
 
 /**
@@ -29,8 +28,12 @@ public abstract class ParticleTask implements IParticleTask {
             this.particle = particle;
       }
 
+      /**
+       * Called before every frame
+       * <p/>
+       * The particle has already been validated when it was built, see {@link Particle#prepared()}
+       */
       @Override
       public void preDisplay() {
-            Preconditions.checkState(particle.getDisplay().isSupported(), "Particle is not supported on your current version");
       }
 }
@@ -0,0 +1,56 @@
+package me.imodzombies4fun.particle.lib.task.generic;
+
+import me.imodzombies4fun.particle.lib.api.Particle;
+
+/**
+ * A helix winding upwards from the origin
+ * <p/>
+ * @author Connor
+ * @since 8/8/2015
+ * <p/>
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+public class HelixTask extends ShapeTask {
+
+      private double radius = 1;
+      private double height = 2;
+      private double turns = 2;
+
+      public HelixTask(Particle particle) {
+            super(particle);
+      }
+
+      public void radius(double radius) {
+            this.radius = radius;
+            invalidate();
+      }
+
+      public void height(double height) {
+            this.height = height;
+            invalidate();
+      }
+
+      public void turns(double turns) {
+            this.turns = turns;
+            invalidate();
+      }
+
+      @Override
+      protected ShapeMesh mesh(double density) {
+            double circumference = 2 * Math.PI * radius * turns;
+            double length = Math.sqrt(circumference * circumference + height * height);
+            return ShapeMesh.helix(radius, height, turns, (int) Math.round(length * density) + 1);
+      }
+}
@@ -0,0 +1,47 @@
+package me.imodzombies4fun.particle.lib.task.generic;
+
+import me.imodzombies4fun.particle.lib.api.Particle;
+import org.bukkit.util.Vector;
+
+/**
+ * A straight line from the origin to an offset
+ * <p/>
+ * @author Connor
+ * @since 8/8/2015
+ * <p/>
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+public class LineTask extends ShapeTask {
+
+      private double offsetX = 0;
+      private double offsetY = 1;
+      private double offsetZ = 0;
+
+      public LineTask(Particle particle) {
+            super(particle);
+      }
+
+      public void offset(Vector offset) {
+            this.offsetX = offset.getX();
+            this.offsetY = offset.getY();
+            this.offsetZ = offset.getZ();
+            invalidate();
+      }
+
+      @Override
+      protected ShapeMesh mesh(double density) {
+            return ShapeMesh.line(offsetX, offsetY, offsetZ, density);
+      }
+}
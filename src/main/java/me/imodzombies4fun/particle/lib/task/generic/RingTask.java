@@ -0,0 +1,42 @@
+package me.imodzombies4fun.particle.lib.task.generic;
+
+import me.imodzombies4fun.particle.lib.api.Particle;
+
+/**
+ * A horizontal ring around the origin
+ * <p/>
+ * @author Connor
+ * @since 8/8/2015
+ * <p/>
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+public class RingTask extends ShapeTask {
+
+      private double radius = 1;
+
+      public RingTask(Particle particle) {
+            super(particle);
+      }
+
+      public void radius(double radius) {
+            this.radius = radius;
+            invalidate();
+      }
+
+      @Override
+      protected ShapeMesh mesh(double density) {
+            return ShapeMesh.circle(radius, (int) Math.round(2 * Math.PI * radius * density));
+      }
+}
@@ -0,0 +1,436 @@
+package me.imodzombies4fun.particle.lib.task.generic;
+
+import me.imodzombies4fun.particle.lib.api.PointBuffer;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An immutable table of point offsets relative to the origin of a shape
+ * <p/>
+ * Meshes are computed once per set of shape parameters and shared by every task using the same parameters, so displaying
+ * a frame only translates the offsets to the origin of the frame. The least recently used meshes are evicted once more
+ * than {@link #MAXIMUM_CACHED} different meshes exist
+ * <p/>
+ * @author Connor
+ * @since 8/8/2015
+ * <p/>
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+public final class ShapeMesh {
+
+      /**
+       * Most meshes kept in the cache at once
+       */
+      public static final int MAXIMUM_CACHED = 512;
+
+      private static final MeshCache cache = new MeshCache(MAXIMUM_CACHED);
+
+      private final double[] x;
+      private final double[] y;
+      private final double[] z;
+
+      private ShapeMesh(double[] x, double[] y, double[] z) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+      }
+
+      /**
+       * Returns a horizontal ring of points, one every <code>step</code> degrees starting at 0
+       *
+       * @param radius Radius of the ring
+       * @param step   Degrees between two points
+       * @return The mesh of the ring
+       * @throws IllegalArgumentException If the step is lower than 1
+       */
+      public static ShapeMesh ring(double radius, int step) {
+            if (step < 1) {
+                  throw new IllegalArgumentException("The step is lower than 1");
+            }
+            MeshKey key = new MeshKey("ring", radius, step);
+            ShapeMesh mesh = cache.get(key);
+            if (mesh != null) {
+                  return mesh;
+            }
+
+            int size = (359 / step) + 1;
+            double[] x = new double[size];
+            double[] z = new double[size];
+            for (int i = 0; i < size; i++) {
+                  double angle = Math.toRadians(i * step);
+                  x[i] = Math.cos(angle) * radius;
+                  z[i] = Math.sin(angle) * radius;
+            }
+            return cache.put(key, new ShapeMesh(x, new double[size], z));
+      }
+
+      /**
+       * Returns a horizontal ring with a radius of 1 and one point per degree, so the offset at an angle is found by indexing
+       *
+       * @return The mesh of the unit circle
+       */
+      public static ShapeMesh unitCircle() {
+            return ring(1, 1);
+      }
+
+      /**
+       * Returns a horizontal ring of evenly spaced points
+       *
+       * @param radius Radius of the ring
+       * @param count  Amount of points
+       * @return The mesh of the ring
+       */
+      public static ShapeMesh circle(double radius, int count) {
+            MeshKey key = new MeshKey("circle", radius, count);
+            ShapeMesh mesh = cache.get(key);
+            if (mesh != null) {
+                  return mesh;
+            }
+
+            count = Math.max(1, count);
+            double[] x = new double[count];
+            double[] z = new double[count];
+            for (int i = 0; i < count; i++) {
+                  double angle = 2 * Math.PI * i / count;
+                  x[i] = Math.cos(angle) * radius;
+                  z[i] = Math.sin(angle) * radius;
+            }
+            return cache.put(key, new ShapeMesh(x, new double[count], z));
+      }
+
+      /**
+       * Returns evenly spread points on the surface of a sphere, placed along a fibonacci spiral from the bottom to the top
+       *
+       * @param radius Radius of the sphere
+       * @param count  Amount of points
+       * @return The mesh of the sphere
+       */
+      public static ShapeMesh sphere(double radius, int count) {
+            MeshKey key = new MeshKey("sphere", radius, count);
+            ShapeMesh mesh = cache.get(key);
+            if (mesh != null) {
+                  return mesh;
+            }
+
+            count = Math.max(1, count);
+            double goldenAngle = Math.PI * (3 - Math.sqrt(5));
+            double[] x = new double[count];
+            double[] y = new double[count];
+            double[] z = new double[count];
+            for (int i = 0; i < count; i++) {
+                  double height = count == 1 ? 0 : -1 + 2.0D * i / (count - 1);
+                  double ring = Math.sqrt(1 - height * height);
+                  double angle = goldenAngle * i;
+                  x[i] = Math.cos(angle) * ring * radius;
+                  y[i] = height * radius;
+                  z[i] = Math.sin(angle) * ring * radius;
+            }
+            return cache.put(key, new ShapeMesh(x, y, z));
+      }
+
+      /**
+       * Returns points along a helix winding upwards from the origin
+       *
+       * @param radius Radius of the helix
+       * @param height Height of the helix
+       * @param turns  Amount of full turns
+       * @param count  Amount of points
+       * @return The mesh of the helix
+       */
+      public static ShapeMesh helix(double radius, double height, double turns, int count) {
+            MeshKey key = new MeshKey("helix", radius, height, turns, count);
+            ShapeMesh mesh = cache.get(key);
+            if (mesh != null) {
+                  return mesh;
+            }
+
+            count = Math.max(1, count);
+            double[] x = new double[count];
+            double[] y = new double[count];
+            double[] z = new double[count];
+            for (int i = 0; i < count; i++) {
+                  double progress = count == 1 ? 0 : (double) i / (count - 1);
+                  double angle = 2 * Math.PI * turns * progress;
+                  x[i] = Math.cos(angle) * radius;
+                  y[i] = height * progress;
+                  z[i] = Math.sin(angle) * radius;
+            }
+            return cache.put(key, new ShapeMesh(x, y, z));
+      }
+
+      /**
+       * Returns stacked rings forming the surface of a cone standing on its base, its tip <code>height</code> above the origin
+       *
+       * @param radius  Radius of the base
+       * @param height  Height of the tip
+       * @param density Points per block
+       * @return The mesh of the cone
+       */
+      public static ShapeMesh cone(double radius, double height, double density) {
+            MeshKey key = new MeshKey("cone", radius, height, density);
+            ShapeMesh mesh = cache.get(key);
+            if (mesh != null) {
+                  return mesh;
+            }
+
+            int rings = Math.max(1, (int) Math.round(height * density));
+            int size = 0;
+            int[] counts = new int[rings];
+            for (int ring = 0; ring < rings; ring++) {
+                  double ringRadius = radius * (rings - ring) / rings;
+                  counts[ring] = Math.max(1, (int) Math.round(2 * Math.PI * ringRadius * density));
+                  size += counts[ring];
+            }
+
+            double[] x = new double[size + 1];
+            double[] y = new double[size + 1];
+            double[] z = new double[size + 1];
+            int index = 0;
+            for (int ring = 0; ring < rings; ring++) {
+                  double ringRadius = radius * (rings - ring) / rings;
+                  double ringHeight = height * ring / rings;
+                  for (int i = 0; i < counts[ring]; i++, index++) {
+                        double angle = 2 * Math.PI * i / counts[ring];
+                        x[index] = Math.cos(angle) * ringRadius;
+                        y[index] = ringHeight;
+                        z[index] = Math.sin(angle) * ringRadius;
+                  }
+            }
+            y[index] = height;
+            return cache.put(key, new ShapeMesh(x, y, z));
+      }
+
+      /**
+       * Returns points along a straight line from the origin to an offset, both ends included
+       *
+       * @param offsetX X offset of the end
+       * @param offsetY Y offset of the end
+       * @param offsetZ Z offset of the end
+       * @param density Points per block
+       * @return The mesh of the line
+       */
+      public static ShapeMesh line(double offsetX, double offsetY, double offsetZ, double density) {
+            MeshKey key = new MeshKey("line", offsetX, offsetY, offsetZ, density);
+            ShapeMesh mesh = cache.get(key);
+            if (mesh != null) {
+                  return mesh;
+            }
+
+            double length = Math.sqrt(offsetX * offsetX + offsetY * offsetY + offsetZ * offsetZ);
+            int segments = Math.max(1, (int) Math.round(length * density));
+            double[] x = new double[segments + 1];
+            double[] y = new double[segments + 1];
+            double[] z = new double[segments + 1];
+            for (int i = 0; i <= segments; i++) {
+                  double progress = (double) i / segments;
+                  x[i] = offsetX * progress;
+                  y[i] = offsetY * progress;
+                  z[i] = offsetZ * progress;
+            }
+            return cache.put(key, new ShapeMesh(x, y, z));
+      }
+
+      /**
+       * Returns points along the twelve edges of a cuboid centered on the origin, every corner included once
+       *
+       * @param sizeX   Size along the x axis
+       * @param sizeY   Size along the y axis
+       * @param sizeZ   Size along the z axis
+       * @param density Points per block
+       * @return The mesh of the cuboid edges
+       */
+      public static ShapeMesh cuboidEdges(double sizeX, double sizeY, double sizeZ, double density) {
+            MeshKey key = new MeshKey("cuboid", sizeX, sizeY, sizeZ, density);
+            ShapeMesh mesh = cache.get(key);
+            if (mesh != null) {
+                  return mesh;
+            }
+
+            // Points between the corners of one edge along each axis
+            int[] inner = {
+                    Math.max(0, (int) Math.round(sizeX * density) - 1),
+                    Math.max(0, (int) Math.round(sizeY * density) - 1),
+                    Math.max(0, (int) Math.round(sizeZ * density) - 1)
+            };
+            double[] size = {sizeX, sizeY, sizeZ};
+            int total = 8 + 4 * (inner[0] + inner[1] + inner[2]);
+            double[][] points = new double[3][total];
+
+            int index = 0;
+            for (int corner = 0; corner < 8; corner++, index++) {
+                  for (int axis = 0; axis < 3; axis++) {
+                        points[axis][index] = ((corner >> axis) & 1) == 0 ? -size[axis] / 2 : size[axis] / 2;
+                  }
+            }
+            for (int axis = 0; axis < 3; axis++) {
+                  int first = (axis + 1) % 3;
+                  int second = (axis + 2) % 3;
+                  for (int edge = 0; edge < 4; edge++) {
+                        for (int i = 1; i <= inner[axis]; i++, index++) {
+                              points[axis][index] = -size[axis] / 2 + size[axis] * i / (inner[axis] + 1);
+                              points[first][index] = (edge & 1) == 0 ? -size[first] / 2 : size[first] / 2;
+                              points[second][index] = (edge & 2) == 0 ? -size[second] / 2 : size[second] / 2;
+                        }
+                  }
+            }
+            return cache.put(key, new ShapeMesh(points[0], points[1], points[2]));
+      }
+
+      /**
+       * Adds every point of this mesh, translated to an origin, to a buffer
+       *
+       * @param points  Buffer to add the points to
+       * @param originX X coordinate of the origin
+       * @param originY Y coordinate of the origin
+       * @param originZ Z coordinate of the origin
+       */
+      public void translate(PointBuffer points, double originX, double originY, double originZ) {
+            for (int i = 0; i < x.length; i++) {
+                  points.add(originX + x[i], originY + y[i], originZ + z[i]);
+            }
+      }
+
+      /**
+       * Adds a single point of this mesh, translated to an origin and scaled, to a buffer
+       *
+       * @param points  Buffer to add the point to
+       * @param index   Index of the point
+       * @param scale   Factor the offset is multiplied with
+       * @param originX X coordinate of the origin
+       * @param originY Y coordinate of the origin
+       * @param originZ Z coordinate of the origin
+       */
+      public void translate(PointBuffer points, int index, double scale, double originX, double originY, double originZ) {
+            points.add(originX + x[index] * scale, originY + y[index] * scale, originZ + z[index] * scale);
+      }
+
+      public double getX(int index) {
+            return x[index];
+      }
+
+      public double getY(int index) {
+            return y[index];
+      }
+
+      public double getZ(int index) {
+            return z[index];
+      }
+
+      public int size() {
+            return x.length;
+      }
+
+      /**
+       * Returns how often a mesh was found in the cache
+       *
+       * @return The amount of cache hits
+       */
+      public static long getCacheHits() {
+            return cache.getHits();
+      }
+
+      /**
+       * Returns how often a mesh had to be computed
+       *
+       * @return The amount of cache misses
+       */
+      public static long getCacheMisses() {
+            return cache.getMisses();
+      }
+
+      /**
+       * Identifies a mesh by the name of its shape and its parameters
+       */
+      private static final class MeshKey {
+            private final String shape;
+            private final double[] parameters;
+
+            private MeshKey(String shape, double... parameters) {
+                  this.shape = shape;
+                  this.parameters = parameters;
+            }
+
+            @Override
+            public boolean equals(Object object) {
+                  if (this == object) {
+                        return true;
+                  }
+                  if (!(object instanceof MeshKey)) {
+                        return false;
+                  }
+                  MeshKey other = (MeshKey) object;
+                  return shape.equals(other.shape) && Arrays.equals(parameters, other.parameters);
+            }
+
+            @Override
+            public int hashCode() {
+                  return 31 * shape.hashCode() + Arrays.hashCode(parameters);
+            }
+      }
+
+      /**
+       * A bounded cache of meshes which evicts the least recently used mesh first and counts its hits and misses
+       */
+      private static final class MeshCache {
+            private final Map<MeshKey, ShapeMesh> meshes;
+            private long hits;
+            private long misses;
+
+            private MeshCache(final int maximumSize) {
+                  this.meshes = new LinkedHashMap<MeshKey, ShapeMesh>(16, 0.75F, true) {
+                        @Override
+                        protected boolean removeEldestEntry(Map.Entry<MeshKey, ShapeMesh> eldest) {
+                              return size() > maximumSize;
+                        }
+                  };
+            }
+
+            private synchronized ShapeMesh get(MeshKey key) {
+                  ShapeMesh mesh = meshes.get(key);
+                  if (mesh != null) {
+                        ++hits;
+                  } else {
+                        ++misses;
+                  }
+                  return mesh;
+            }
+
+            /**
+             * Stores a computed mesh, keeping the mesh of another thread that computed the same one first
+             *
+             * @param key  Key of the mesh
+             * @param mesh Computed mesh
+             * @return The mesh to use
+             */
+            private synchronized ShapeMesh put(MeshKey key, ShapeMesh mesh) {
+                  ShapeMesh existing = meshes.get(key);
+                  if (existing != null) {
+                        return existing;
+                  }
+                  meshes.put(key, mesh);
+                  return mesh;
+            }
+
+            private synchronized long getHits() {
+                  return hits;
+            }
+
+            private synchronized long getMisses() {
+                  return misses;
+            }
+      }
+}
@@ -0,0 +1,160 @@
+package me.imodzombies4fun.particle.lib.task.generic;
+
+import me.imodzombies4fun.particle.lib.api.DisplayPoint;
+import me.imodzombies4fun.particle.lib.api.Particle;
+import me.imodzombies4fun.particle.lib.api.PointBuffer;
+import me.imodzombies4fun.particle.lib.task.timed.ParticleScheduler;
+import me.imodzombies4fun.particle.lib.task.timed.ParticleTimedTask;
+import org.bukkit.util.Vector;
+
+/**
+ * A task displaying the points of a {@link ShapeMesh} around the origin of its particle
+ * <p/>
+ * A solid shape displays all of its points every frame, an incremental shape displays the next few points every frame and
+ * starts over once it reached the end. The sampling density is given in points per block and scaled by the quality level
+ * of the scheduler, frames reuse the mesh and point buffer so they do not allocate
+ * <p/>
+ * @author Connor
+ * @since 8/8/2015
+ * <p/>
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+public abstract class ShapeTask extends ParticleTimedTask {
+
+      private double density = 4;
+      private boolean solid = true;
+      private int pointsPerFrame = 1;
+      private int limitedCycles = 0;
+
+      private int cursor;
+      private int cycles;
+
+      private final PointBuffer points = new PointBuffer(64);
+      private ShapeMesh mesh;
+      private double meshDensity;
+
+      public ShapeTask(Particle particle) {
+            super(particle);
+      }
+
+      /**
+       * Sets how many points are sampled per block of the shape
+       *
+       * @param density Points per block
+       * @throws IllegalArgumentException If the density is not positive
+       */
+      public void density(double density) {
+            if (density <= 0) {
+                  throw new IllegalArgumentException("The density is not positive");
+            }
+            this.density = density;
+            invalidate();
+      }
+
+      /**
+       * Displays every point of the shape each frame
+       */
+      public void makeSolid() {
+            this.solid = true;
+      }
+
+      /**
+       * Displays the next points of the shape each frame
+       *
+       * @param pointsPerFrame Amount of points displayed per frame
+       * @throws IllegalArgumentException If the amount is lower than 1
+       */
+      public void makeIncremental(int pointsPerFrame) {
+            if (pointsPerFrame < 1) {
+                  throw new IllegalArgumentException("The amount of points per frame is lower than 1");
+            }
+            this.solid = false;
+            this.pointsPerFrame = pointsPerFrame;
+      }
+
+      /**
+       * Cancels this task once the shape has been displayed completely a number of times
+       *
+       * @param cycles Amount of complete displays, 0 to display forever
+       */
+      public void limitedCycles(int cycles) {
+            this.limitedCycles = cycles;
+      }
+
+      /**
+       * Computes or looks up the mesh of this shape
+       *
+       * @param density Points per block, already scaled by the quality level
+       * @return The mesh of the shape
+       */
+      protected abstract ShapeMesh mesh(double density);
+
+      /**
+       * Makes the next frame look up the mesh again, shapes have to call this whenever one of their parameters changed
+       */
+      protected void invalidate() {
+            this.mesh = null;
+      }
+
+      @Override
+      public void run() {
+            ShapeMesh current = currentMesh();
+            DisplayPoint origin = origin();
+            Vector location = origin.getLocation();
+            points.reset(origin);
+
+            if (solid) {
+                  current.translate(points, location.getX(), location.getY(), location.getZ());
+                  ++cycles;
+            } else {
+                  for (int i = 0; i < pointsPerFrame; i++) {
+                        current.translate(points, cursor, 1, location.getX(), location.getY(), location.getZ());
+                        advance(1, current.size());
+                  }
+            }
+            particle.send(points);
+
+            if (limitedCycles != 0 && cycles >= limitedCycles) {
+                  ParticleScheduler.cancel(this);
+            }
+      }
+
+      @Override
+      protected void skip(int frames) {
+            super.skip(frames);
+            if (solid) {
+                  cycles += frames;
+            } else {
+                  advance((long) frames * pointsPerFrame, currentMesh().size());
+            }
+      }
+
+      private ShapeMesh currentMesh() {
+            double scaled = density * getQuality().getDensity();
+            ShapeMesh current = mesh;
+            if (current == null || meshDensity != scaled) {
+                  current = mesh = mesh(scaled);
+                  meshDensity = scaled;
+                  cursor %= current.size();
+            }
+            return current;
+      }
+
+      private void advance(long points, int size) {
+            long next = cursor + points;
+            cycles += (int) (next / size);
+            cursor = (int) (next % size);
+      }
+}
@@ -2,6 +2,7 @@ package me.imodzombies4fun.particle.lib.task.generic;
 
 import me.imodzombies4fun.particle.lib.api.DisplayPoint;
 import me.imodzombies4fun.particle.lib.api.Particle;
+import me.imodzombies4fun.particle.lib.api.PointBuffer;
 import me.imodzombies4fun.particle.lib.task.timed.ParticleScheduler;
 import me.imodzombies4fun.particle.lib.task.timed.ParticleTimedTask;
 import org.bukkit.util.Vector;
@@ -35,6 +36,11 @@ public class SpiralTask extends ParticleTimedTask {
 
       private int limitedRotations = 0;
 
+      private final PointBuffer points = new PointBuffer(36);
+      private ShapeMesh mesh;
+      private int meshRadius;
+      private int meshStep;
+
       public SpiralTask(Particle particle) {
             super(particle);
       }
@@ -57,24 +63,22 @@ public class SpiralTask extends ParticleTimedTask {
 
       @Override
       public void run() {
-            if (solid) {
-                  for (int deg = 0; deg < 360; deg += increment) {
-                        double cos = Math.cos(Math.toRadians(deg));
-                        double sin = Math.sin(Math.toRadians(deg));
+            DisplayPoint origin = origin();
+            Vector location = origin.getLocation();
+            points.reset(origin);
 
-                        DisplayPoint point = modify(cos * radius, 0, sin * radius);
-                        particle.send(point);
-                  }
+            if (solid) {
+                  mesh(radius, (int) Math.ceil(increment / getQuality().getDensity()))
+                          .translate(points, location.getX(), location.getY(), location.getZ());
+                  particle.send(points);
 
                   if (currentAngle >= limitedRotations && limitedRotations != 0) {
                         ParticleScheduler.cancel(this);
                   }
             } else {
-                  double cos = Math.cos(Math.toRadians(currentAngle));
-                  double sin = Math.sin(Math.toRadians(currentAngle));
-
-                  DisplayPoint point = modify(cos * radius, 0, sin * radius);
-                  particle.send(point);
+                  ShapeMesh circle = ShapeMesh.unitCircle();
+                  circle.translate(points, (int) currentAngle % 360, radius, location.getX(), location.getY(), location.getZ());
+                  particle.send(points);
 
                   currentAngle += increment;
 
@@ -89,10 +93,32 @@ public class SpiralTask extends ParticleTimedTask {
             }
       }
 
-      private DisplayPoint modify(double x, double y, double z) {
-            Vector origin = particle.getLocation().getLocation();
-            Vector next = new Vector(origin.getX() + x, origin.getY() + y, origin.getZ() + z);
-            DisplayPoint point = particle.getLocation().clone(next);
-            return point;
+      /**
+       * Returns the ring mesh of the spiral, only looking it up again when the radius or step changed
+       *
+       * @param radius Radius of the ring
+       * @param step   Degrees between two points
+       * @return The mesh
+       */
+      private ShapeMesh mesh(int radius, int step) {
+            ShapeMesh current = mesh;
+            if (current == null || meshRadius != radius || meshStep != step) {
+                  current = mesh = ShapeMesh.ring(radius, step);
+                  meshRadius = radius;
+                  meshStep = step;
+            }
+            return current;
+      }
+
+      @Override
+      protected void skip(int frames) {
+            super.skip(frames);
+            if (!solid) {
+                  currentAngle += (double) frames * increment;
+                  while (currentAngle >= 360) {
+                        currentAngle -= 360;
+                        --limitedRotations;
+                  }
+            }
       }
 }
@@ -0,0 +1,40 @@
+package me.imodzombies4fun.particle.lib.task.timed;
+
+/**
+ * Decides what a {@link ParticleTimedTask} does with the frames it missed while the server was not ticking
+ * <p/>
+ * @author Connor
+ * @since 8/8/2015
+ * <p/>
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+public enum CatchUpPolicy {
+
+      /**
+       * Missed frames are dropped, the task continues with its next frame as if no time had passed
+       */
+      SKIP,
+      /**
+       * Missed frames are not displayed, but the task is fast-forwarded past them so it keeps its phase
+       *
+       * @see ParticleTimedTask#skip(int)
+       */
+      COALESCE,
+      /**
+       * Missed frames are displayed back to back, up to {@link ParticleScheduler#MAX_REPLAY_FRAMES} of them
+       */
+      REPLAY
+}
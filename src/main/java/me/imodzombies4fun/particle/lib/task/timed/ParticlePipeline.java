@@ -0,0 +1,140 @@
+package me.imodzombies4fun.particle.lib.task.timed;
+
+import me.imodzombies4fun.particle.lib.ParticleLibPlugin;
+import me.imodzombies4fun.particle.lib.metrics.ParticleMetrics;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Runs the frames of {@link ParticleTimedTask}s on a pool of worker threads
+ * <p/>
+ * The main thread only prepares a frame, the workers compute its points, build the packets and send them. The queue
+ * of pending frames is bounded and a frame is dropped instead of waiting whenever the queue is full or the previous
+ * frame of the same task is still running, so a slow pool can never stall the tick
+ * <p/>
+ * @author Connor
+ * @since 8/8/2015
+ * <p/>
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+public class ParticlePipeline {
+
+      private final ThreadPoolExecutor executor;
+
+      private final AtomicLong submittedFrames = new AtomicLong();
+      private final AtomicLong droppedFrames = new AtomicLong();
+      private final AtomicLong failedFrames = new AtomicLong();
+
+      /**
+       * Construct a new pipeline
+       *
+       * @param threads  Amount of worker threads
+       * @param capacity Most frames that can wait for a worker
+       */
+      public ParticlePipeline(int threads, int capacity) {
+            final AtomicInteger threadId = new AtomicInteger();
+            executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<Runnable>(capacity), new ThreadFactory() {
+                  public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "ParticleLib Pipeline #" + threadId.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                  }
+            }, new ThreadPoolExecutor.AbortPolicy());
+      }
+
+      /**
+       * Prepares the due frame of a task on the calling thread and hands it to the workers
+       * <p/>
+       * Only called on the main thread. A dropped frame leaves the task untouched, it is only skipped ahead and prepared
+       * once a worker slot is known to be free
+       *
+       * @param task         Task to display
+       * @param missedFrames Frames the task missed while the server was not ticking
+       * @return Whether the frame was accepted or dropped
+       */
+      boolean submit(final ParticleTimedTask task, int missedFrames) {
+            if (task.inFlight) {
+                  droppedFrames.incrementAndGet();
+                  return false;
+            }
+            // Workers only ever take frames out of the queue, so a free slot seen here is still free at execute
+            if (executor.isShutdown() || executor.getQueue().remainingCapacity() == 0) {
+                  droppedFrames.incrementAndGet();
+                  return false;
+            }
+
+            if (missedFrames > 0 && task.catchUp != CatchUpPolicy.SKIP) {
+                  task.skip(missedFrames);
+            }
+            task.prepareFrame();
+            task.inFlight = true;
+
+            try {
+                  executor.execute(new Runnable() {
+                        public void run() {
+                              try {
+                                    task.runFrame();
+                              } catch (Throwable throwable) {
+                                    failedFrames.incrementAndGet();
+                                    ParticleMetrics.countException();
+                                    ParticleLibPlugin.getInstance().getLogger().log(Level.WARNING,
+                                            "Failed to display a frame of " + task.getClass().getSimpleName(), throwable);
+                              } finally {
+                                    task.finishFrame();
+                              }
+                        }
+                  });
+            } catch (RejectedExecutionException exception) {
+                  // Only possible when the pipeline is shut down concurrently
+                  task.finishFrame();
+                  droppedFrames.incrementAndGet();
+                  return false;
+            }
+
+            submittedFrames.incrementAndGet();
+            return true;
+      }
+
+      /**
+       * Stops the workers, frames that are still waiting are discarded
+       */
+      public void shutdown() {
+            executor.shutdownNow();
+      }
+
+      public long getSubmittedFrames() {
+            return submittedFrames.get();
+      }
+
+      public long getDroppedFrames() {
+            return droppedFrames.get();
+      }
+
+      public long getFailedFrames() {
+            return failedFrames.get();
+      }
+
+      public int getQueuedFrames() {
+            return executor.getQueue().size();
+      }
+}
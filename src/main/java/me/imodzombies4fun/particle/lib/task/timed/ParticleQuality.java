@@ -0,0 +1,82 @@
+package me.imodzombies4fun.particle.lib.task.timed;
+
+/**
+ * Level of detail {@link ParticleTimedTask}s display their frames at, lowered by the {@link ParticleScheduler} while the server
+ * is struggling to keep up
+ * <p/>
+ * @author Connor
+ * @since 8/8/2015
+ * <p/>
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+public enum ParticleQuality {
+
+      /**
+       * Every point of every frame is displayed
+       */
+      FULL(1.0D, 1),
+      /**
+       * Shapes display half of their points
+       */
+      REDUCED(0.5D, 1),
+      /**
+       * Shapes display a quarter of their points and only every second frame is displayed
+       */
+      MINIMAL(0.25D, 2);
+
+      private final double density;
+      private final int frameInterval;
+
+      private ParticleQuality(double density, int frameInterval) {
+            this.density = density;
+            this.frameInterval = frameInterval;
+      }
+
+      /**
+       * Returns the share of points shapes should display at this level
+       *
+       * @return The density, between 0 and 1
+       */
+      public double getDensity() {
+            return density;
+      }
+
+      /**
+       * Returns every how many frames a frame is displayed at this level
+       *
+       * @return The frame interval
+       */
+      public int getFrameInterval() {
+            return frameInterval;
+      }
+
+      /**
+       * Returns the next lower level, or this level if it is the lowest
+       *
+       * @return The lower level
+       */
+      public ParticleQuality lower() {
+            return this == FULL ? REDUCED : MINIMAL;
+      }
+
+      /**
+       * Returns the next higher level, or this level if it is the highest
+       *
+       * @return The higher level
+       */
+      public ParticleQuality higher() {
+            return this == MINIMAL ? REDUCED : FULL;
+      }
+}
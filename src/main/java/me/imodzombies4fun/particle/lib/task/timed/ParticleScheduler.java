@@ -1,11 +1,20 @@
 package me.imodzombies4fun.particle.lib.task.timed;
 
-import com.google.common.collect.MapMaker;
+import com.google.common.base.Preconditions;
 import me.imodzombies4fun.particle.lib.ParticleLibPlugin;
+import me.imodzombies4fun.particle.lib.metrics.ParticleMetrics;
+import me.imodzombies4fun.particle.lib.view.BlockCache;
+import me.imodzombies4fun.particle.lib.view.ParticleFlush;
+import me.imodzombies4fun.particle.lib.view.PlayerGrid;
+import me.imodzombies4fun.particle.lib.view.PlayerSnapshot;
 import org.bukkit.Bukkit;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * @author Connor
@@ -27,46 +36,278 @@ import java.util.concurrent.ConcurrentMap;
  */
 public class ParticleScheduler {
 
-      private static ConcurrentMap<ParticleTimedTask, Long> scheduledParticles = new MapMaker()
-              .concurrencyLevel(2)
-              .makeMap();
+      /**
+       * Most frames a task using {@link CatchUpPolicy#REPLAY} displays on top of its due frame
+       */
+      public static final int MAX_REPLAY_FRAMES = 5;
+
+      private static final long NANOS_PER_TICK = 50000000L;
+      private static final int MAX_MISSED_TICKS = 40;
+      private static final int LOWER_QUALITY_TICKS = 20;
+      private static final int RAISE_QUALITY_TICKS = 200;
+
+      private static final TickWheel scheduledParticles = new TickWheel(512);
+      private static final Queue<Command> intake = new ConcurrentLinkedQueue<>();
+      private static final List<ParticleTimedTask> dueParticles = new ArrayList<>();
+
+      private static volatile long currentTick;
+      private static long lastTickNanos;
+      private static int missedTicks;
+
+      private static volatile ParticlePipeline pipeline;
+
+      private static TickTimer tickTimer;
+      private static volatile double tickMillis;
+      private static volatile ParticleQuality quality = ParticleQuality.FULL;
+      private static volatile boolean adaptiveQuality = true;
+      private static volatile double lowerQualityMillis = 45;
+      private static volatile double raiseQualityMillis = 35;
+      private static int overloadedTicks;
+      private static int relaxedTicks;
 
       private static int schedulerTaskId;
 
       public ParticleScheduler() {
+            tickTimer = new TickTimer();
             schedulerTaskId = Bukkit.getScheduler().scheduleSyncRepeatingTask(ParticleLibPlugin.getInstance(), new Runnable() {
                   public void run() {
-                        for (Map.Entry<ParticleTimedTask, Long> taskEntries : scheduledParticles.entrySet()) {
-                              ParticleTimedTask task = taskEntries.getKey();
-                              long scheduledNextTime = taskEntries.getValue();
+                        tick();
+                  }
+            }, 1, 1);
+      }
+
+      /**
+       * Advances the scheduler by one tick and displays every task that is due at it
+       * <p/>
+       * The clock is only read once per tick to find out how many ticks the server missed, the tasks themselves are timed in ticks.
+       * Tasks scheduled or cancelled since the last tick are applied first, after that the tick only touches structures
+       * owned by the thread running it and takes no locks
+       *
+       * @see CatchUpPolicy
+       */
+      public static void tick() {
+            long now = System.nanoTime();
+            missedTicks = lastTickNanos == 0 ? 0 : (int) Math.max(0, Math.min(MAX_MISSED_TICKS, (now - lastTickNanos) / NANOS_PER_TICK - 1));
+            lastTickNanos = now;
+            updateQuality(now);
 
-                              if (scheduledNextTime <= System.currentTimeMillis()) {
-                                    scheduledParticles.remove(task);
-                                    scheduledParticles.put(task, systemTimeFromTicks(task.delay));
+            BlockCache.nextTick();
+            PlayerGrid.refresh(PlayerSnapshot.capture());
+
+            long tick = ++currentTick;
+            drainIntake(tick);
+            scheduledParticles.poll(tick, dueParticles);
+
+            boolean metrics = ParticleMetrics.isEnabled();
+            try {
+                  // Every due task is back on the wheel before any frame runs, so a failing frame cannot drop the others
+                  for (int i = 0, size = dueParticles.size(); i < size; i++) {
+                        ParticleTimedTask task = dueParticles.get(i);
+                        scheduledParticles.schedule(task, tick + Math.max(1, task.delay));
+                  }
 
-                                    task.preDisplay();
-                                    task.display();
-                              }
+                  for (int i = 0, size = dueParticles.size(); i < size; i++) {
+                        ParticleTimedTask task = dueParticles.get(i);
+                        long frameStart = metrics ? System.nanoTime() : 0;
+                        try {
+                              task.frame(missedTicks, quality);
+                        } catch (RuntimeException exception) {
+                              ParticleMetrics.countException();
+                              getLogger().log(Level.WARNING, "Failed to display a frame of " + task.getClass().getName(), exception);
+                              continue;
+                        }
+                        if (metrics) {
+                              ParticleMetrics.recordFrame(task.getClass(), System.nanoTime() - frameStart);
                         }
                   }
-            }, 1, 1);
+            } finally {
+                  if (ParticleFlush.getMode() == ParticleFlush.Mode.END_OF_TICK) {
+                        ParticleFlush.flushAll();
+                  }
+                  if (metrics) {
+                        ParticleMetrics.recordTick(System.nanoTime() - now, dueParticles.size());
+                  }
+                  dueParticles.clear();
+            }
+      }
+
+      private static Logger getLogger() {
+            ParticleLibPlugin plugin = ParticleLibPlugin.getInstance();
+            return plugin != null ? plugin.getLogger() : Bukkit.getLogger();
       }
 
+      /**
+       * Lowers the quality level one step once ticks took longer than the lower threshold for a second and raises it
+       * one step once they took less than the raise threshold for ten seconds
+       * <p/>
+       * The gap between both thresholds and the longer time to raise the level keep it from flapping
+       *
+       * @param now Current time in nanoseconds
+       */
+      private static void updateQuality(long now) {
+            if (tickTimer == null) {
+                  tickTimer = new TickTimer();
+            }
+            double millis = tickMillis = tickTimer.measure(now);
+            if (!adaptiveQuality) {
+                  quality = ParticleQuality.FULL;
+                  return;
+            }
+
+            overloadedTicks = millis > lowerQualityMillis ? overloadedTicks + 1 : 0;
+            relaxedTicks = millis < raiseQualityMillis ? relaxedTicks + 1 : 0;
+            if (overloadedTicks >= LOWER_QUALITY_TICKS && quality != ParticleQuality.MINIMAL) {
+                  quality = quality.lower();
+                  overloadedTicks = 0;
+            } else if (relaxedTicks >= RAISE_QUALITY_TICKS && quality != ParticleQuality.FULL) {
+                  quality = quality.higher();
+                  relaxedTicks = 0;
+            }
+      }
+
+      /**
+       * Stops displaying a task
+       * <p/>
+       * Can be called from any thread. The task displays no further frame from then on, even when it cancels itself
+       * in the middle of catching up, and is removed from the wheel at the start of the next tick
+       *
+       * @param task Task to cancel
+       */
       public static void cancel(ParticleTimedTask task) {
-            scheduledParticles.remove(task);
+            task.cancelled = true;
+            intake.add(new Command(task, true));
       }
 
+      /**
+       * Starts displaying a task from the next tick on
+       * <p/>
+       * Can be called from any thread, the task is added at the start of the next tick
+       *
+       * @param task Task to schedule
+       */
       public static void schedule(ParticleTimedTask task) {
-            scheduledParticles.put(task, System.currentTimeMillis());
+            task.cancelled = false;
+            intake.add(new Command(task, false));
       }
 
-      private long systemTimeFromTicks(int ticksFromNow) {
-            //20 ticks in a second, 1000 millis in a second
-            //1000 / 20 = 50 millis in a tick
-            return System.currentTimeMillis() + ticksFromNow * (1000 / 20);
+      /**
+       * Applies every schedule and cancel since the last tick to the tick wheel in the order they were made
+       * <p/>
+       * The cancelled flag of a task is set again for every command, so it ends up matching the last call even if calls
+       * from different threads raced between setting the flag and queueing their command
+       *
+       * @param tick Tick newly scheduled tasks are due at
+       */
+      private static void drainIntake(long tick) {
+            Command command;
+            while ((command = intake.poll()) != null) {
+                  command.task.cancelled = command.cancel;
+                  if (command.cancel) {
+                        scheduledParticles.cancel(command.task);
+                  } else {
+                        scheduledParticles.schedule(command.task, tick);
+                  }
+            }
+      }
+
+      /**
+       * Starts displaying tasks which allow it off the main thread
+       *
+       * @param threads  Amount of worker threads
+       * @param capacity Most frames that can wait for a worker before frames are dropped
+       * @see ParticleTimedTask#offMainThread()
+       */
+      public static void enablePipeline(int threads, int capacity) {
+            disablePipeline();
+            pipeline = new ParticlePipeline(threads, capacity);
+      }
+
+      public static void disablePipeline() {
+            ParticlePipeline previous = pipeline;
+            pipeline = null;
+            if (previous != null) {
+                  previous.shutdown();
+            }
+      }
+
+      public static ParticlePipeline getPipeline() {
+            return pipeline;
+      }
+
+      /**
+       * Returns the tick the scheduler is currently at, counted from its start
+       *
+       * @return The current tick
+       */
+      public static long getCurrentTick() {
+            return currentTick;
+      }
+
+      /**
+       * Returns how many ticks the server missed before the current tick
+       *
+       * @return The missed ticks
+       */
+      public static int getMissedTicks() {
+            return missedTicks;
+      }
+
+      /**
+       * Returns the quality level tasks are currently displayed at
+       *
+       * @return The quality level
+       */
+      public static ParticleQuality getQuality() {
+            return quality;
+      }
+
+      /**
+       * Returns the average duration of recent server ticks
+       *
+       * @return The tick duration in milliseconds
+       */
+      public static double getTickMillis() {
+            return tickMillis;
+      }
+
+      public static boolean isAdaptiveQuality() {
+            return adaptiveQuality;
+      }
+
+      public static void setAdaptiveQuality(boolean adaptiveQuality) {
+            ParticleScheduler.adaptiveQuality = adaptiveQuality;
+      }
+
+      /**
+       * Sets the tick durations at which the quality level changes
+       *
+       * @param lowerMillis Tick duration above which the quality is lowered
+       * @param raiseMillis Tick duration below which the quality is raised again
+       * @throws IllegalArgumentException If the quality would be raised at a longer tick duration than it is lowered at
+       */
+      public static void setQualityThresholds(double lowerMillis, double raiseMillis) {
+            Preconditions.checkArgument(raiseMillis <= lowerMillis, "The raise threshold is higher than the lower threshold");
+            lowerQualityMillis = lowerMillis;
+            raiseQualityMillis = raiseMillis;
       }
 
       public static void shutdown() {
             Bukkit.getScheduler().cancelTask(schedulerTaskId);
+            disablePipeline();
+            ParticleFlush.flushAll();
+            PlayerSnapshot.clear();
+      }
+
+      /**
+       * A schedule or cancel waiting for the next tick
+       */
+      private static final class Command {
+            private final ParticleTimedTask task;
+            private final boolean cancel;
+
+            private Command(ParticleTimedTask task, boolean cancel) {
+                  this.task = task;
+                  this.cancel = cancel;
+            }
       }
 }
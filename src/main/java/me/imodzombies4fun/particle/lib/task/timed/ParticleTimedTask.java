@@ -1,7 +1,13 @@
 package me.imodzombies4fun.particle.lib.task.timed;
 
+import com.google.common.base.Preconditions;
+import me.imodzombies4fun.particle.lib.api.DisplayPoint;
 import me.imodzombies4fun.particle.lib.api.Particle;
 import me.imodzombies4fun.particle.lib.task.ParticleTask;
+import me.imodzombies4fun.particle.lib.view.ParticleEngine;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
 
 /**
  * @author Connor
@@ -26,6 +32,24 @@ public abstract class ParticleTimedTask extends ParticleTask {
       protected int delay;
       protected int currentIteration;
       protected ParticleModifier modifier;
+      protected CatchUpPolicy catchUp = CatchUpPolicy.SKIP;
+      protected boolean offMainThread;
+      protected boolean adaptiveQuality = true;
+      protected ParticleQuality quality = ParticleQuality.FULL;
+      private int qualityFrame;
+
+      // Frame state while the task is displayed by the ParticlePipeline
+      volatile boolean inFlight;
+      private DisplayPoint frameOrigin;
+
+      // Scheduling state, owned by the TickWheel this task is scheduled in
+      long dueTick;
+      boolean scheduled;
+      ParticleTimedTask wheelPrevious;
+      ParticleTimedTask wheelNext;
+
+      // Set by ParticleScheduler#cancel right away, while the wheel only learns about the cancel at the next tick
+      volatile boolean cancelled;
 
       public ParticleTimedTask(Particle particle) {
             super(particle);
@@ -45,8 +69,153 @@ public abstract class ParticleTimedTask extends ParticleTask {
             ++currentIteration;
       }
 
+      /**
+       * Displays the frame that is due at the current tick, catching up with the frames missed before it
+       * <p/>
+       * At a quality level with a frame interval above 1 the frames in between are skipped, so the animation keeps its pace
+       *
+       * @param missedTicks Ticks the server did not run since the previous tick
+       * @param quality     Quality level the scheduler is currently at
+       * @see CatchUpPolicy
+       * @see ParticleQuality
+       */
+      void frame(int missedTicks, ParticleQuality quality) {
+            if (cancelled) {
+                  return;
+            }
+            this.quality = adaptiveQuality ? quality : ParticleQuality.FULL;
+            int frameInterval = this.quality.getFrameInterval();
+            if (frameInterval > 1 && qualityFrame++ % frameInterval != 0) {
+                  if (!inFlight) {
+                        skip(1);
+                  }
+                  return;
+            }
+
+            int missedFrames = missedTicks / Math.max(1, delay);
+
+            ParticlePipeline pipeline = ParticleScheduler.getPipeline();
+            if (offMainThread && pipeline != null) {
+                  pipeline.submit(this, missedFrames);
+                  return;
+            }
+
+            if (missedFrames > 0) {
+                  switch (catchUp) {
+                        case COALESCE:
+                              skip(missedFrames);
+                              break;
+                        case REPLAY:
+                              for (int i = 0; i < Math.min(missedFrames, ParticleScheduler.MAX_REPLAY_FRAMES) && !cancelled; i++) {
+                                    preDisplay();
+                                    display();
+                              }
+                              break;
+                        default:
+                              break;
+                  }
+
+                  if (cancelled) {
+                        return;
+                  }
+            }
+
+            preDisplay();
+            display();
+      }
+
+      /**
+       * Prepares a frame for the {@link ParticlePipeline} on the main thread
+       * <p/>
+       * Applies the modifier and freezes the origin of the particle together with a copy of its receivers
+       */
+      void prepareFrame() {
+            preDisplay();
+            if (modifier != null) {
+                  modifier.modify(currentIteration, particle);
+            }
+
+            DisplayPoint origin = particle.getLocation();
+            frameOrigin = new DisplayPoint(origin.getWorld(), origin.getLocation().clone(),
+                    new ArrayList<Player>(origin.getPlayers()));
+      }
+
+      /**
+       * Computes and sends a prepared frame on a worker thread
+       */
+      void runFrame() {
+            run();
+            ++currentIteration;
+      }
+
+      void finishFrame() {
+            frameOrigin = null;
+            inFlight = false;
+      }
+
+      /**
+       * Returns the point the current frame is displayed around
+       * <p/>
+       * Inside the {@link ParticlePipeline} this is the origin frozen on the main thread, so shapes should always use it
+       * instead of reading the location of the particle
+       *
+       * @return The origin of the frame
+       */
+      protected DisplayPoint origin() {
+            DisplayPoint origin = frameOrigin;
+            return origin != null ? origin : particle.getLocation();
+      }
+
+      /**
+       * Fast-forwards this task past frames that will not be displayed
+       * <p/>
+       * Tasks keeping their own animation state should override this and advance it as well
+       *
+       * @param frames Amount of frames to skip
+       */
+      protected void skip(int frames) {
+            currentIteration += frames;
+      }
+
       public abstract void run();
 
+      /**
+       * Lets the {@link ParticlePipeline} compute and send the frames of this task off the main thread when it is enabled
+       * <p/>
+       * Frames are never replayed off the main thread, {@link CatchUpPolicy#REPLAY} behaves like {@link CatchUpPolicy#COALESCE} there
+       *
+       * @throws IllegalStateException If the particle requires water, which can only be checked on the main thread
+       */
+      public void offMainThread() {
+            Preconditions.checkState(!particle.getDisplay().hasProperty(ParticleEngine.ParticleProperty.REQUIRES_WATER),
+                    "Particles requiring water can only be displayed on the main thread");
+            this.offMainThread = true;
+      }
+
+      /**
+       * Returns the quality level the current frame is displayed at
+       * <p/>
+       * Shapes should scale the amount of points they display by its {@link ParticleQuality#getDensity() density}
+       *
+       * @return The quality level
+       */
+      public ParticleQuality getQuality() {
+            return quality;
+      }
+
+      /**
+       * Sets whether this task follows the quality level of the scheduler or always displays at full quality
+       *
+       * @param adaptiveQuality Whether the quality is adapted or not
+       */
+      public void adaptiveQuality(boolean adaptiveQuality) {
+            this.adaptiveQuality = adaptiveQuality;
+      }
+
+      public void catchUp(CatchUpPolicy catchUp) {
+            this.catchUp = catchUp;
+      }
+
       public void modifier(ParticleModifier modifier) {
             this.modifier = modifier;
       }
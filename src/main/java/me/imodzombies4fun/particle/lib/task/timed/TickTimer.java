@@ -0,0 +1,90 @@
+package me.imodzombies4fun.particle.lib.task.timed;
+
+import me.imodzombies4fun.particle.lib.view.ReflectionUtil;
+import org.bukkit.Bukkit;
+
+import java.lang.reflect.Field;
+
+/**
+ * Measures how long the server takes for a tick
+ * <p/>
+ * The durations are read from the recent tick times the NMS server records. If those cannot be found, the interval between
+ * two ticks of the {@link ParticleScheduler} is used instead, which only shows load once the server falls below 20 ticks per second
+ * <p/>
+ * @author Connor
+ * @since 8/8/2015
+ * <p/>
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+final class TickTimer {
+
+      private static final int SAMPLES = 100;
+
+      private final long[] tickTimes;
+      private long lastTickNanos;
+      private double averageInterval;
+
+      TickTimer() {
+            this.tickTimes = findTickTimes();
+      }
+
+      /**
+       * Returns the recent tick times array of the NMS server, or <code>null</code> if it cannot be found
+       *
+       * @return The tick times in nanoseconds
+       */
+      private static long[] findTickTimes() {
+            try {
+                  Object server = ReflectionUtil.invokeMethod(Bukkit.getServer(), "getServer");
+                  for (Class<?> clazz = server.getClass(); clazz != null; clazz = clazz.getSuperclass()) {
+                        for (Field field : clazz.getDeclaredFields()) {
+                              if (field.getType() == long[].class) {
+                                    field.setAccessible(true);
+                                    long[] times = (long[]) field.get(server);
+                                    if (times != null && times.length == SAMPLES) {
+                                          return times;
+                                    }
+                              }
+                        }
+                  }
+            } catch (Exception exception) {
+                  return null;
+            }
+            return null;
+      }
+
+      /**
+       * Records the start of a scheduler tick and returns the average tick duration
+       *
+       * @param now Current time in nanoseconds
+       * @return The average tick duration in milliseconds
+       */
+      double measure(long now) {
+            if (lastTickNanos != 0) {
+                  double interval = (now - lastTickNanos) / 1.0E6D;
+                  averageInterval = averageInterval == 0 ? interval : averageInterval * 0.95D + interval * 0.05D;
+            }
+            lastTickNanos = now;
+
+            if (tickTimes == null) {
+                  return averageInterval;
+            }
+            long total = 0;
+            for (long time : tickTimes) {
+                  total += time;
+            }
+            return total / (double) SAMPLES / 1.0E6D;
+      }
+}
@@ -0,0 +1,137 @@
+package me.imodzombies4fun.particle.lib.task.timed;
+
+import com.google.common.base.Preconditions;
+
+import java.util.List;
+
+/**
+ * A hashed timing wheel of {@link ParticleTimedTask}s keyed by server tick
+ * <p/>
+ * Every slot holds an intrusive linked list of the tasks due at a tick that maps to it, so polling a tick only
+ * touches the tasks of its slot and scheduling or cancelling a task is constant time
+ * <p/>
+ * A wheel is not thread safe, {@link ParticleScheduler} only touches its wheel from the tick and queues schedules and
+ * cancels made in between
+ * <p/>
+ * @author Connor
+ * @since 8/8/2015
+ * <p/>
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+public class TickWheel {
+
+      private final ParticleTimedTask[] slots;
+      private final int mask;
+      private int size;
+
+      /**
+       * Construct a new tick wheel
+       *
+       * @param slots Amount of slots, must be a power of two
+       */
+      public TickWheel(int slots) {
+            Preconditions.checkArgument(slots > 0 && (slots & (slots - 1)) == 0, "Slot count must be a power of two");
+            this.slots = new ParticleTimedTask[slots];
+            this.mask = slots - 1;
+      }
+
+      /**
+       * Schedules a task to be due at a tick, replacing a previous schedule of the task
+       *
+       * @param task Task to schedule
+       * @param tick Tick the task is due at
+       */
+      public void schedule(ParticleTimedTask task, long tick) {
+            cancel(task);
+
+            int slot = (int) (tick & mask);
+            ParticleTimedTask head = slots[slot];
+            task.dueTick = tick;
+            task.wheelPrevious = null;
+            task.wheelNext = head;
+            if (head != null) {
+                  head.wheelPrevious = task;
+            }
+            slots[slot] = task;
+            task.scheduled = true;
+            ++size;
+      }
+
+      /**
+       * Removes a task from the wheel
+       *
+       * @param task Task to remove
+       * @return Whether the task was scheduled or not
+       */
+      public boolean cancel(ParticleTimedTask task) {
+            if (!task.scheduled) {
+                  return false;
+            }
+
+            if (task.wheelPrevious != null) {
+                  task.wheelPrevious.wheelNext = task.wheelNext;
+            } else {
+                  slots[(int) (task.dueTick & mask)] = task.wheelNext;
+            }
+            if (task.wheelNext != null) {
+                  task.wheelNext.wheelPrevious = task.wheelPrevious;
+            }
+
+            task.wheelPrevious = null;
+            task.wheelNext = null;
+            task.scheduled = false;
+            --size;
+            return true;
+      }
+
+      /**
+       * Removes all tasks that are due at a tick from the wheel and adds them to a list
+       * <p/>
+       * Tasks in the same slot which are due in a later rotation of the wheel stay scheduled
+       *
+       * @param tick Current tick
+       * @param due  List the due tasks are added to
+       */
+      public void poll(long tick, List<ParticleTimedTask> due) {
+            ParticleTimedTask task = slots[(int) (tick & mask)];
+            while (task != null) {
+                  ParticleTimedTask next = task.wheelNext;
+                  if (task.dueTick <= tick) {
+                        cancel(task);
+                        due.add(task);
+                  }
+                  task = next;
+            }
+      }
+
+      /**
+       * Determine if a task is scheduled in this wheel
+       *
+       * @param task Task to check
+       * @return Whether the task is scheduled or not
+       */
+      public boolean isScheduled(ParticleTimedTask task) {
+            return task.scheduled;
+      }
+
+      /**
+       * Returns the amount of scheduled tasks
+       *
+       * @return The amount of tasks
+       */
+      public int size() {
+            return size;
+      }
+}
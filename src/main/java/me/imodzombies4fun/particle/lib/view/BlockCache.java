@@ -0,0 +1,230 @@
+package me.imodzombies4fun.particle.lib.view;
+
+import com.google.common.base.Preconditions;
+import org.bukkit.Material;
+import org.bukkit.World;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Block types read from the world once and cached, for particles which depend on the blocks they are displayed in
+ * <p/>
+ * Every chunk that is looked up gets an entry holding one table per 16 block high section, which is only created once a
+ * block of that section is looked up and only filled with the blocks that are read. An entry answers lookups until it
+ * is older than the {@link #setLifetime(int) lifetime}. Chunks that are not loaded are never loaded, lookups in them
+ * report {@link #UNLOADED}. The cache belongs to the main thread, {@link #nextTick()} is called by the scheduler at the
+ * start of every tick
+ * <p/>
+ * @author Connor
+ * @since 8/8/2015
+ * <p/>
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+public final class BlockCache {
+
+      /**
+       * Type id returned for blocks in chunks that are not loaded
+       */
+      public static final int UNLOADED = -1;
+
+      @SuppressWarnings("deprecation")
+      private static final int WATER = Material.WATER.getId();
+      @SuppressWarnings("deprecation")
+      private static final int STATIONARY_WATER = Material.STATIONARY_WATER.getId();
+
+      private static final Map<World, Map<Long, Entry>> chunks = new IdentityHashMap<>();
+
+      private static int lifetime = 1;
+      private static long tick;
+      private static Entry last;
+      private static final AtomicLong hits = new AtomicLong();
+      private static final AtomicLong misses = new AtomicLong();
+
+      // Prevent accidental construction
+      private BlockCache() {
+      }
+
+      /**
+       * Returns the type id of a block
+       *
+       * @param world World of the block
+       * @param x     X coordinate of the block
+       * @param y     Y coordinate of the block
+       * @param z     Z coordinate of the block
+       * @return The type id or {@link #UNLOADED} if the chunk of the block is not loaded
+       */
+      @SuppressWarnings("deprecation")
+      public static int getTypeId(World world, int x, int y, int z) {
+            Entry entry = getEntry(world, x >> 4, z >> 4);
+            if (!entry.loaded) {
+                  return UNLOADED;
+            }
+            if (y < 0 || y > 255) {
+                  return 0;
+            }
+
+            short[] section = entry.sections[y >> 4];
+            if (section == null) {
+                  section = new short[4096];
+                  entry.sections[y >> 4] = section;
+            }
+            // Type ids are stored plus one, so 0 marks a block which was not read yet
+            int index = (y & 15) << 8 | (z & 15) << 4 | (x & 15);
+            int cached = section[index];
+            if (cached != 0) {
+                  hits.incrementAndGet();
+                  return cached - 1;
+            }
+            misses.incrementAndGet();
+            int type = world.getBlockTypeIdAt(x, y, z);
+            section[index] = (short) (type + 1);
+            return type;
+      }
+
+      /**
+       * Determine if the chunk of a block is loaded
+       *
+       * @param world World of the block
+       * @param x     X coordinate of the block
+       * @param z     Z coordinate of the block
+       * @return Whether the chunk is loaded or not
+       */
+      public static boolean isLoaded(World world, int x, int z) {
+            return getEntry(world, x >> 4, z >> 4).loaded;
+      }
+
+      /**
+       * Determine if water is at a block
+       *
+       * @param world World of the block
+       * @param x     X coordinate of the block
+       * @param y     Y coordinate of the block
+       * @param z     Z coordinate of the block
+       * @return Whether water is at the block or not, <code>false</code> if its chunk is not loaded
+       */
+      public static boolean isWater(World world, int x, int y, int z) {
+            int type = getTypeId(world, x, y, z);
+            return type == WATER || type == STATIONARY_WATER;
+      }
+
+      private static Entry getEntry(World world, int chunkX, int chunkZ) {
+            Entry entry = last;
+            if (entry != null && entry.world == world && entry.x == chunkX && entry.z == chunkZ && tick - entry.tick < lifetime) {
+                  return entry;
+            }
+
+            Map<Long, Entry> worldChunks = chunks.get(world);
+            if (worldChunks == null) {
+                  worldChunks = new HashMap<>();
+                  chunks.put(world, worldChunks);
+            }
+            Long key = ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+            entry = worldChunks.get(key);
+            if (entry == null || tick - entry.tick >= lifetime) {
+                  entry = new Entry(world, chunkX, chunkZ, tick, world.isChunkLoaded(chunkX, chunkZ));
+                  worldChunks.put(key, entry);
+            }
+            last = entry;
+            return entry;
+      }
+
+      /**
+       * Advances the cache by one tick and drops every entry that has outlived the lifetime
+       */
+      public static void nextTick() {
+            ++tick;
+            last = null;
+            Iterator<Map<Long, Entry>> worlds = chunks.values().iterator();
+            while (worlds.hasNext()) {
+                  Map<Long, Entry> worldChunks = worlds.next();
+                  Iterator<Entry> entries = worldChunks.values().iterator();
+                  while (entries.hasNext()) {
+                        if (tick - entries.next().tick >= lifetime) {
+                              entries.remove();
+                        }
+                  }
+                  if (worldChunks.isEmpty()) {
+                        worlds.remove();
+                  }
+            }
+      }
+
+      /**
+       * Drops all entries
+       */
+      public static void clear() {
+            chunks.clear();
+            last = null;
+      }
+
+      public static int getLifetime() {
+            return lifetime;
+      }
+
+      /**
+       * Sets for how many ticks a cached block answers lookups, longer lifetimes read fewer blocks but notice block changes later
+       *
+       * @param lifetime Lifetime in ticks
+       * @throws IllegalArgumentException If the lifetime is lower than 1
+       */
+      public static void setLifetime(int lifetime) {
+            Preconditions.checkArgument(lifetime >= 1, "The lifetime is lower than 1");
+            BlockCache.lifetime = lifetime;
+      }
+
+      public static long getHits() {
+            return hits.get();
+      }
+
+      public static long getMisses() {
+            return misses.get();
+      }
+
+      /**
+       * Returns the share of block lookups answered without reading the world
+       *
+       * @return The hit rate between 0 and 1
+       */
+      public static double getHitRate() {
+            long hits = getHits();
+            long total = hits + getMisses();
+            return total == 0 ? 0 : (double) hits / total;
+      }
+
+      /**
+       * The block types read from a chunk per section, whether the chunk was loaded and the tick the entry was created at
+       */
+      private static final class Entry {
+            private final World world;
+            private final int x;
+            private final int z;
+            private final long tick;
+            private final boolean loaded;
+            private final short[][] sections;
+
+            private Entry(World world, int x, int z, long tick, boolean loaded) {
+                  this.world = world;
+                  this.x = x;
+                  this.z = z;
+                  this.tick = tick;
+                  this.loaded = loaded;
+                  this.sections = loaded ? new short[16][] : null;
+            }
+      }
+}
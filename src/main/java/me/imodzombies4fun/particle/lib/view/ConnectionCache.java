@@ -0,0 +1,330 @@
+package me.imodzombies4fun.particle.lib.view;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @author Connor
+ * @since 8/8/2015
+ * <p/>
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+public class ConnectionCache implements Listener {
+
+      private static final Map<UUID, Connection> connections = new ConcurrentHashMap<>();
+
+      private static ChannelAccess channelAccess;
+      private static boolean channelResolved;
+
+      /**
+       * Caches the connections of all players that are already online, e.g. after a reload
+       */
+      public static void fill() {
+            for (Player player : Bukkit.getOnlinePlayers()) {
+                  connections.put(player.getUniqueId(), resolve(player));
+            }
+      }
+
+      /**
+       * Returns the cached connection of a player, resolving it if the player has none
+       * <p/>
+       * Only {@link #fill()} and the join handler cache connections. A player missing here has quit or not joined yet,
+       * e.g. a receiver of a frame that was captured before the quit, so the connection is resolved without caching it.
+       * Otherwise nothing would ever remove it again
+       *
+       * @param player Owner of the connection
+       * @return The connection of the player
+       */
+      public static Connection get(Player player) {
+            Connection connection = connections.get(player.getUniqueId());
+            return connection != null ? connection : resolve(player);
+      }
+
+      public static void clear() {
+            connections.clear();
+      }
+
+      private static Connection resolve(Player player) {
+            ParticleEngine.ParticlePacket.initialize();
+            Object handle = ParticleEngine.ParticlePacket.getConnection(player);
+            MethodHandle send = ParticleEngine.ParticlePacket.getSendHandle().bindTo(handle);
+
+            ChannelAccess access = getChannelAccess(handle);
+            if (access == null) {
+                  return new Connection(handle, send, null, null, null);
+            }
+
+            try {
+                  Object channel = access.channel.get(access.networkManager.get(handle));
+                  PacketEncoding.initialize(channel, access.networkManager.getType());
+                  return new Connection(handle, send, access.write.bindTo(channel), access.flush.bindTo(channel), access.writable.bindTo(channel));
+            } catch (Exception exception) {
+                  return new Connection(handle, send, null, null, null);
+            }
+      }
+
+      /**
+       * Resolves how to get from a player connection to its netty channel, or <code>null</code> if the layout is not recognized
+       *
+       * @param handle Any NMS player connection
+       * @return The channel access or <code>null</code>
+       */
+      private static synchronized ChannelAccess getChannelAccess(Object handle) {
+            if (!channelResolved) {
+                  channelResolved = true;
+                  try {
+                        Field networkManager = ReflectionUtil.getField(handle.getClass(), false, "networkManager");
+                        Field channel = null;
+                        for (Field field : networkManager.getType().getDeclaredFields()) {
+                              if (field.getType().getName().endsWith(".netty.channel.Channel")) {
+                                    channel = field;
+                                    channel.setAccessible(true);
+                                    break;
+                              }
+                        }
+
+                        if (channel != null) {
+                              MethodHandles.Lookup lookup = MethodHandles.lookup();
+                              Class<?> channelClass = channel.getType();
+                              MethodHandle write = lookup.unreflect(channelClass.getMethod("write", Object.class))
+                                      .asType(MethodType.methodType(void.class, Object.class, Object.class));
+                              MethodHandle flush = lookup.unreflect(channelClass.getMethod("flush"))
+                                      .asType(MethodType.methodType(void.class, Object.class));
+                              MethodHandle writable = lookup.unreflect(channelClass.getMethod("isWritable"))
+                                      .asType(MethodType.methodType(boolean.class, Object.class));
+                              channelAccess = new ChannelAccess(networkManager, channel, write, flush, writable);
+                        }
+                  } catch (Exception exception) {
+                        channelAccess = null;
+                  }
+            }
+            return channelAccess;
+      }
+
+      @EventHandler(priority = EventPriority.MONITOR)
+      public void onJoin(PlayerJoinEvent event) {
+            connections.put(event.getPlayer().getUniqueId(), resolve(event.getPlayer()));
+      }
+
+      @EventHandler(priority = EventPriority.MONITOR)
+      public void onQuit(PlayerQuitEvent event) {
+            connections.remove(event.getPlayer().getUniqueId());
+      }
+
+      /**
+       * Fields and methods leading from a player connection to its netty channel
+       */
+      private static final class ChannelAccess {
+            private final Field networkManager;
+            private final Field channel;
+            private final MethodHandle write;
+            private final MethodHandle flush;
+            private final MethodHandle writable;
+
+            private ChannelAccess(Field networkManager, Field channel, MethodHandle write, MethodHandle flush, MethodHandle writable) {
+                  this.networkManager = networkManager;
+                  this.channel = channel;
+                  this.write = write;
+                  this.flush = flush;
+                  this.writable = writable;
+            }
+      }
+
+      /**
+       * The NMS player connection of a player together with a send handle bound to it
+       * <p/>
+       * If the netty channel of the connection could be resolved, write, flush and writability handles bound to it are kept as well
+       */
+      public static final class Connection {
+            private final Object handle;
+            private final MethodHandle send;
+            private final MethodHandle write;
+            private final MethodHandle flush;
+            private final MethodHandle writable;
+            private final ParticleGovernor.Budget budget = new ParticleGovernor.Budget();
+            private final AtomicBoolean pending = new AtomicBoolean();
+
+            private Connection(Object handle, MethodHandle send, MethodHandle write, MethodHandle flush, MethodHandle writable) {
+                  this.handle = handle;
+                  this.send = send;
+                  this.write = write;
+                  this.flush = flush;
+                  this.writable = writable;
+            }
+
+            /**
+             * Returns the NMS player connection
+             *
+             * @return The player connection
+             */
+            public Object getHandle() {
+                  return handle;
+            }
+
+            /**
+             * Determine if the netty channel of this connection is resolved, which is required to write encoded packets
+             *
+             * @return Whether the channel is resolved or not
+             * @see PacketEncoding
+             */
+            public boolean hasChannel() {
+                  return write != null;
+            }
+
+            /**
+             * Returns the particle budget of this connection
+             *
+             * @return The budget
+             * @see ParticleGovernor
+             */
+            public ParticleGovernor.Budget getBudget() {
+                  return budget;
+            }
+
+            /**
+             * Determine if the netty channel of this connection accepts writes without queueing them in its outbound buffer
+             * <p/>
+             * Connections without a resolved channel are always considered writable
+             *
+             * @return Whether the channel is writable or not
+             */
+            public boolean isWritable() {
+                  if (writable == null) {
+                        return true;
+                  }
+                  try {
+                        return (boolean) writable.invokeExact();
+                  } catch (Throwable throwable) {
+                        return true;
+                  }
+            }
+
+            /**
+             * Sends a NMS packet over this connection
+             *
+             * @param packet Packet to send
+             * @throws Throwable If the connection fails to send the packet
+             */
+            public void send(Object packet)
+                    throws Throwable {
+                  if (write != null && ParticleFlush.isDeferred()) {
+                        write.invokeExact(packet);
+                        ParticleFlush.defer(this);
+                        return;
+                  }
+                  send.invokeExact(packet);
+            }
+
+            /**
+             * Sends several NMS packets over this connection
+             * <p/>
+             * With a resolved channel the packets are written without flushing and the channel is flushed once at the end
+             *
+             * @param packets Packets to send
+             * @throws Throwable If the connection fails to send a packet
+             */
+            public void sendAll(Object[] packets)
+                    throws Throwable {
+                  if (write == null) {
+                        for (Object packet : packets) {
+                              send.invokeExact(packet);
+                        }
+                        return;
+                  }
+
+                  for (Object packet : packets) {
+                        write.invokeExact(packet);
+                  }
+                  flushOrDefer();
+            }
+
+            /**
+             * Writes a duplicate of an encoded packet to the channel of this connection and flushes it
+             *
+             * @param buffer Encoded packet
+             * @throws Throwable If the channel fails to write the packet
+             * @see #hasChannel()
+             */
+            public void sendEncoded(Object buffer)
+                    throws Throwable {
+                  write.invokeExact(PacketEncoding.share(buffer));
+                  flushOrDefer();
+            }
+
+            /**
+             * Writes duplicates of several encoded packets to the channel of this connection and flushes it once at the end
+             *
+             * @param buffers Encoded packets
+             * @throws Throwable If the channel fails to write a packet
+             * @see #hasChannel()
+             */
+            public void sendAllEncoded(Object[] buffers)
+                    throws Throwable {
+                  for (Object buffer : buffers) {
+                        write.invokeExact(PacketEncoding.share(buffer));
+                  }
+                  flushOrDefer();
+            }
+
+            /**
+             * Flushes the channel right away or leaves it to {@link ParticleFlush} if flushes are deferred
+             *
+             * @throws Throwable If the channel fails to flush
+             */
+            private void flushOrDefer()
+                    throws Throwable {
+                  if (ParticleFlush.isDeferred()) {
+                        ParticleFlush.defer(this);
+                  } else {
+                        flush.invokeExact();
+                  }
+            }
+
+            /**
+             * Marks this connection as waiting for a deferred flush
+             *
+             * @return Whether the connection was not waiting yet
+             */
+            boolean markPending() {
+                  return pending.compareAndSet(false, true);
+            }
+
+            /**
+             * Performs a deferred flush
+             */
+            void flushPending() {
+                  pending.set(false);
+                  try {
+                        flush.invokeExact();
+                  } catch (Throwable throwable) {
+                        // The channel is closed, its connection is removed once the player quit
+                  }
+            }
+      }
+}
@@ -0,0 +1,139 @@
+package me.imodzombies4fun.particle.lib.view;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A stage of {@link ParticleCulling} which decides whether a particle is worth sending to a player
+ * <p/>
+ * Every stage counts the sends it culled
+ * <p/>
+ * @author Connor
+ * @since 8/8/2015
+ * <p/>
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+public abstract class CullingStage {
+
+      private static final double EYE_HEIGHT = 1.62;
+
+      private final AtomicLong culled = new AtomicLong();
+
+      /**
+       * Determine if a particle should not be sent to a player
+       *
+       * @param player Receiver of the particle
+       * @param world  World of the player
+       * @param px     X coordinate of the player
+       * @param py     Y coordinate of the player
+       * @param pz     Z coordinate of the player
+       * @param lookX  X component of the view direction of the player
+       * @param lookY  Y component of the view direction of the player
+       * @param lookZ  Z component of the view direction of the player
+       * @param x      X coordinate of the particle
+       * @param y      Y coordinate of the particle
+       * @param z      Z coordinate of the particle
+       * @return Whether the send should be dropped or not
+       */
+      public abstract boolean shouldCull(Player player, World world, double px, double py, double pz,
+                                         double lookX, double lookY, double lookZ, double x, double y, double z);
+
+      /**
+       * Returns how many sends this stage culled
+       *
+       * @return The amount of culled sends
+       */
+      public long getCulled() {
+            return culled.get();
+      }
+
+      public void resetCulled() {
+            culled.set(0);
+      }
+
+      void countCulled() {
+            culled.incrementAndGet();
+      }
+
+      /**
+       * Returns a stage which culls particles further away from the player than the given render distance
+       *
+       * @param renderDistance Distance up to which particles are sent
+       * @return The stage
+       */
+      public static CullingStage distance(final double renderDistance) {
+            final double squared = renderDistance * renderDistance;
+            return new CullingStage() {
+                  @Override
+                  public boolean shouldCull(Player player, World world, double px, double py, double pz,
+                                            double lookX, double lookY, double lookZ, double x, double y, double z) {
+                        double dx = x - px;
+                        double dy = y - py;
+                        double dz = z - pz;
+                        return dx * dx + dy * dy + dz * dz > squared;
+                  }
+            };
+      }
+
+      /**
+       * Returns a stage which culls particles outside of a cone around the direction the player is looking at
+       * <p/>
+       * Particles closer to the eyes than the near distance are never culled, so effects around the player stay visible while turning
+       *
+       * @param halfAngle    Angle between the view direction and the edge of the cone in degrees
+       * @param nearDistance Distance around the eyes in which nothing is culled
+       * @return The stage
+       */
+      public static CullingStage viewCone(double halfAngle, final double nearDistance) {
+            final double cosine = Math.cos(Math.toRadians(halfAngle));
+            final double nearSquared = nearDistance * nearDistance;
+            return new CullingStage() {
+                  @Override
+                  public boolean shouldCull(Player player, World world, double px, double py, double pz,
+                                            double lookX, double lookY, double lookZ, double x, double y, double z) {
+                        double dx = x - px;
+                        double dy = y - (py + EYE_HEIGHT);
+                        double dz = z - pz;
+                        double distanceSquared = dx * dx + dy * dy + dz * dz;
+                        if (distanceSquared <= nearSquared) {
+                              return false;
+                        }
+
+                        double dot = lookX * dx + lookY * dy + lookZ * dz;
+                        return dot < cosine * Math.sqrt(distanceSquared);
+                  }
+            };
+      }
+
+      /**
+       * Returns a stage which culls particles in chunks that are not loaded
+       * <p/>
+       * Reads {@link LoadedChunks}, so the stage is safe to run off the main thread
+       *
+       * @return The stage
+       */
+      public static CullingStage loadedChunks() {
+            return new CullingStage() {
+                  @Override
+                  public boolean shouldCull(Player player, World world, double px, double py, double pz,
+                                            double lookX, double lookY, double lookZ, double x, double y, double z) {
+                        return !LoadedChunks.isLoaded(world, Location.locToBlock(x) >> 4, Location.locToBlock(z) >> 4);
+                  }
+            };
+      }
+}
@@ -41,21 +41,16 @@ public enum DisplayFilter {
       RADIUS {
             @Override
             public Collection<? extends Player>  filter(Location display, Object... args) {
+                  return PlayerGrid.getNearby(display, getRange(args));
+            }
+
+            @Override
+            public double getRange(Object... args) {
                   Preconditions.checkState(args.length > 0, "Required a radius but got nothing");
                   Preconditions.checkState(args[0] instanceof Number, "Radius is not of type number");
 
                   Number number = (Number) args[0];
-                  double radius = number.doubleValue();
-
-                  Collection<Player> filtered = new HashSet<>();
-
-                  for (Player player : display.getWorld().getPlayers()) {
-                        if (player.getLocation().distance(display) <= radius) {
-                              filtered.add(player);
-                        }
-                  }
-
-                  return filtered;
+                  return number.doubleValue();
             }
       },
 
@@ -83,9 +78,28 @@ public enum DisplayFilter {
             }
       };
 
+      /**
+       * Range of filters whose players do not depend on the location they are filtered for
+       */
+      public static final double NOT_REGIONAL = -1;
+
       public Collection<? extends Player> filter() {
             return this.filter(null);
       }
 
+      /**
+       * Returns the range around a location within which this filter lets players through
+       * <p/>
+       * A filter with a range is regional, it lets through exactly the players within that range of the location. Filters
+       * whose players do not depend on the location return {@link #NOT_REGIONAL}
+       *
+       * @param args Arguments of the filter
+       * @return The range or {@link #NOT_REGIONAL}
+       * @see ReceiverSet
+       */
+      public double getRange(Object... args) {
+            return NOT_REGIONAL;
+      }
+
       public abstract Collection<? extends Player>  filter(Location display, Object... args);
 }
@@ -0,0 +1,106 @@
+package me.imodzombies4fun.particle.lib.view;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The chunks loaded in every world, recorded on the main thread from chunk events
+ * <p/>
+ * {@link World#isChunkLoaded(int, int)} reads the chunk map of the server, which only the main thread may touch. This
+ * copy can be read from any thread, e.g. by culling stages of frames running on the pipeline
+ * <p/>
+ * @author Connor
+ * @since 8/8/2015
+ * <p/>
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+public class LoadedChunks implements Listener {
+
+      private static final Map<UUID, Set<Long>> worlds = new ConcurrentHashMap<>();
+
+      /**
+       * Adds all chunks that are already loaded, e.g. after a reload
+       */
+      public static void fill() {
+            for (World world : Bukkit.getWorlds()) {
+                  for (Chunk chunk : world.getLoadedChunks()) {
+                        add(chunk);
+                  }
+            }
+      }
+
+      public static void clear() {
+            worlds.clear();
+      }
+
+      /**
+       * Determine if a chunk is loaded
+       *
+       * @param world  World of the chunk
+       * @param chunkX X coordinate of the chunk
+       * @param chunkZ Z coordinate of the chunk
+       * @return Whether the chunk was loaded when the main thread last changed it or not
+       */
+      public static boolean isLoaded(World world, int chunkX, int chunkZ) {
+            Set<Long> chunks = worlds.get(world.getUID());
+            return chunks != null && chunks.contains(key(chunkX, chunkZ));
+      }
+
+      private static void add(Chunk chunk) {
+            UUID world = chunk.getWorld().getUID();
+            Set<Long> chunks = worlds.get(world);
+            if (chunks == null) {
+                  chunks = Collections.newSetFromMap(new ConcurrentHashMap<Long, Boolean>());
+                  worlds.put(world, chunks);
+            }
+            chunks.add(key(chunk.getX(), chunk.getZ()));
+      }
+
+      private static long key(int chunkX, int chunkZ) {
+            return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+      }
+
+      @EventHandler(priority = EventPriority.MONITOR)
+      public void onChunkLoad(ChunkLoadEvent event) {
+            add(event.getChunk());
+      }
+
+      @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+      public void onChunkUnload(ChunkUnloadEvent event) {
+            Chunk chunk = event.getChunk();
+            Set<Long> chunks = worlds.get(chunk.getWorld().getUID());
+            if (chunks != null) {
+                  chunks.remove(key(chunk.getX(), chunk.getZ()));
+            }
+      }
+
+      @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+      public void onWorldUnload(WorldUnloadEvent event) {
+            worlds.remove(event.getWorld().getUID());
+      }
+}
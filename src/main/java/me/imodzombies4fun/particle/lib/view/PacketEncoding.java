@@ -0,0 +1,304 @@
+package me.imodzombies4fun.particle.lib.view;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes particle packets straight into pooled netty buffers instead of instantiating the NMS packet
+ * <p/>
+ * A buffer holds the packet id followed by the fields of the packet, the encoders of the channel pipeline pass buffers through
+ * and only add the length prefix, compression and encryption. Every packet is encoded once and every receiver gets a retained
+ * duplicate of it, so the fan-out neither creates packet objects nor encodes the same packet per receiver
+ * <p/>
+ * The netty classes are shaded differently per server version, so they are resolved from the channel of the first connection.
+ * If they cannot be resolved or the server rewrites packets per protocol version, the engine keeps sending NMS packets
+ * <p/>
+ * @author Connor
+ * @since 8/8/2015
+ * <p/>
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+public final class PacketEncoding {
+
+      /**
+       * Id of the particle packet in the play state, the same in 1.7 and 1.8
+       */
+      private static final int PACKET_ID = 0x2A;
+
+      private static volatile boolean enabled = true;
+      private static volatile Handles handles;
+      private static boolean resolved;
+
+      private static final AtomicLong encoded = new AtomicLong();
+
+      // Prevent accidental construction
+      private PacketEncoding() {
+      }
+
+      /**
+       * Determine if packets are encoded directly
+       *
+       * @return Whether the direct encoding is resolved and enabled or not
+       */
+      public static boolean isAvailable() {
+            return enabled && handles != null;
+      }
+
+      public static boolean isEnabled() {
+            return enabled;
+      }
+
+      public static void setEnabled(boolean enabled) {
+            PacketEncoding.enabled = enabled;
+      }
+
+      /**
+       * Returns the amount of packets that were encoded directly
+       *
+       * @return The amount of encoded packets
+       */
+      public static long getEncoded() {
+            return encoded.get();
+      }
+
+      /**
+       * Resolves the netty buffer methods from a channel, only the first call has an effect
+       *
+       * @param channel        Netty channel of a player connection
+       * @param networkManager Class of the NMS network manager
+       */
+      static synchronized void initialize(Object channel, Class<?> networkManager) {
+            if (resolved) {
+                  return;
+            }
+            resolved = true;
+
+            for (Method method : networkManager.getDeclaredMethods()) {
+                  // Protocol patches rewrite packets for older clients, which raw buffers would bypass
+                  if (method.getName().equals("getVersion")) {
+                        return;
+                  }
+            }
+
+            try {
+                  MethodHandles.Lookup lookup = MethodHandles.lookup();
+                  Method alloc = channel.getClass().getMethod("alloc");
+                  Object allocator = alloc.invoke(channel);
+                  Method buffer = alloc.getReturnType().getMethod("buffer", int.class);
+                  Class<?> bufferClass = buffer.getReturnType();
+
+                  handles = new Handles(
+                          lookup.unreflect(buffer).bindTo(allocator).asType(MethodType.methodType(Object.class, int.class)),
+                          lookup.unreflect(bufferClass.getMethod("writeBytes", byte[].class)).asType(MethodType.methodType(void.class, Object.class, byte[].class)),
+                          lookup.unreflect(bufferClass.getMethod("setFloat", int.class, float.class)).asType(MethodType.methodType(void.class, Object.class, int.class, float.class)),
+                          lookup.unreflect(bufferClass.getMethod("duplicate")).asType(MethodType.methodType(Object.class, Object.class)),
+                          lookup.unreflect(bufferClass.getMethod("retain")).asType(MethodType.methodType(Object.class, Object.class)),
+                          lookup.unreflect(bufferClass.getMethod("release")).asType(MethodType.methodType(void.class, Object.class)));
+            } catch (Exception exception) {
+                  handles = null;
+            }
+      }
+
+      /**
+       * Builds the encoded form of a particle packet with the coordinates left at 0
+       *
+       * @param version      Major server version
+       * @param name         Name of the particle including its data string, used before 1.8
+       * @param id           Id of the particle, used since 1.8
+       * @param longDistance Whether the particle is visible from far away, used since 1.8
+       * @param offsetX      Offset on the x axis
+       * @param offsetY      Offset on the y axis
+       * @param offsetZ      Offset on the z axis
+       * @param speed        Speed of the particle
+       * @param amount       Amount of particles
+       * @param data         Data values written as varints, used since 1.8
+       * @return The template
+       */
+      static Template template(int version, String name, int id, boolean longDistance, float offsetX, float offsetY, float offsetZ,
+                               float speed, int amount, int[] data) {
+            Writer writer = new Writer();
+            writer.writeVarInt(PACKET_ID);
+            if (version < 8) {
+                  byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                  writer.writeVarInt(bytes.length);
+                  writer.writeBytes(bytes);
+            } else {
+                  writer.writeInt(id);
+                  writer.writeByte(longDistance ? 1 : 0);
+            }
+            int coordinates = writer.size();
+            for (int i = 0; i < 3; i++) {
+                  writer.writeInt(0);
+            }
+            writer.writeInt(Float.floatToIntBits(offsetX));
+            writer.writeInt(Float.floatToIntBits(offsetY));
+            writer.writeInt(Float.floatToIntBits(offsetZ));
+            writer.writeInt(Float.floatToIntBits(speed));
+            writer.writeInt(amount);
+            if (version > 7) {
+                  for (int value : data) {
+                        writer.writeVarInt(value);
+                  }
+            }
+            return new Template(writer.toByteArray(), coordinates);
+      }
+
+      /**
+       * Encodes a packet from its template into a new pooled buffer
+       *
+       * @param template Template of the packet
+       * @param x        X coordinate of the particle
+       * @param y        Y coordinate of the particle
+       * @param z        Z coordinate of the particle
+       * @return The buffer, which has to be given back with {@link #release(Object)}
+       * @throws Throwable If the buffer cannot be allocated or written
+       */
+      static Object encode(Template template, float x, float y, float z)
+              throws Throwable {
+            Handles current = handles;
+            Object buffer = (Object) current.buffer.invokeExact(template.bytes.length);
+            current.writeBytes.invokeExact(buffer, template.bytes);
+            current.setFloat.invokeExact(buffer, template.coordinates, x);
+            current.setFloat.invokeExact(buffer, template.coordinates + 4, y);
+            current.setFloat.invokeExact(buffer, template.coordinates + 8, z);
+            encoded.incrementAndGet();
+            return buffer;
+      }
+
+      /**
+       * Returns a retained duplicate of a buffer with its own reader index, which the channel releases once it is written
+       *
+       * @param buffer Encoded packet
+       * @return The duplicate to write
+       * @throws Throwable If the buffer cannot be duplicated
+       */
+      static Object share(Object buffer)
+              throws Throwable {
+            Handles current = handles;
+            Object duplicate = (Object) current.duplicate.invokeExact(buffer);
+            return (Object) current.retain.invokeExact(duplicate);
+      }
+
+      /**
+       * Gives back the reference to a buffer the engine holds, the buffer returns to its pool once every duplicate is written
+       *
+       * @param buffer Encoded packet, may be <code>null</code>
+       */
+      static void release(Object buffer) {
+            if (buffer == null) {
+                  return;
+            }
+            try {
+                  handles.release.invokeExact(buffer);
+            } catch (Throwable throwable) {
+                  // The buffer is lost to the pool, but nothing else refers to it anymore
+            }
+      }
+
+      /**
+       * Releases every buffer of an array
+       *
+       * @param buffers Encoded packets, entries may be <code>null</code>
+       */
+      static void releaseAll(Object[] buffers) {
+            for (Object buffer : buffers) {
+                  release(buffer);
+            }
+      }
+
+      /**
+       * The encoded form of a packet with the position of its coordinates
+       */
+      static final class Template {
+            private final byte[] bytes;
+            private final int coordinates;
+
+            private Template(byte[] bytes, int coordinates) {
+                  this.bytes = bytes;
+                  this.coordinates = coordinates;
+            }
+      }
+
+      /**
+       * Handles of the netty allocator and buffer methods
+       */
+      private static final class Handles {
+            private final MethodHandle buffer;
+            private final MethodHandle writeBytes;
+            private final MethodHandle setFloat;
+            private final MethodHandle duplicate;
+            private final MethodHandle retain;
+            private final MethodHandle release;
+
+            private Handles(MethodHandle buffer, MethodHandle writeBytes, MethodHandle setFloat, MethodHandle duplicate,
+                            MethodHandle retain, MethodHandle release) {
+                  this.buffer = buffer;
+                  this.writeBytes = writeBytes;
+                  this.setFloat = setFloat;
+                  this.duplicate = duplicate;
+                  this.retain = retain;
+                  this.release = release;
+            }
+      }
+
+      /**
+       * Writes the big endian primitives and varints of the minecraft protocol into a growing array
+       */
+      private static final class Writer {
+            private byte[] bytes = new byte[64];
+            private int size;
+
+            private void writeByte(int value) {
+                  if (size == bytes.length) {
+                        bytes = Arrays.copyOf(bytes, size * 2);
+                  }
+                  bytes[size++] = (byte) value;
+            }
+
+            private void writeBytes(byte[] values) {
+                  for (byte value : values) {
+                        writeByte(value);
+                  }
+            }
+
+            private void writeInt(int value) {
+                  writeByte(value >>> 24);
+                  writeByte(value >>> 16);
+                  writeByte(value >>> 8);
+                  writeByte(value);
+            }
+
+            private void writeVarInt(int value) {
+                  while ((value & ~0x7F) != 0) {
+                        writeByte((value & 0x7F) | 0x80);
+                        value >>>= 7;
+                  }
+                  writeByte(value);
+            }
+
+            private int size() {
+                  return size;
+            }
+
+            private byte[] toByteArray() {
+                  return Arrays.copyOf(bytes, size);
+            }
+      }
+}
@@ -0,0 +1,152 @@
+package me.imodzombies4fun.particle.lib.view;
+
+import me.imodzombies4fun.particle.lib.api.PointBuffer;
+import me.imodzombies4fun.particle.lib.metrics.ParticleMetrics;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.util.Vector;
+
+import java.util.Arrays;
+
+/**
+ * The culling stages every send of {@link ParticleEngine} passes before it reaches a player
+ * <p/>
+ * Players are measured from the current {@link PlayerSnapshot} when they are part of it
+ * <p/>
+ * @author Connor
+ * @since 8/8/2015
+ * <p/>
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+public final class ParticleCulling {
+
+      private static volatile CullingStage[] stages = new CullingStage[0];
+
+      // Prevent accidental construction
+      private ParticleCulling() {
+      }
+
+      public static synchronized void addStage(CullingStage stage) {
+            CullingStage[] next = Arrays.copyOf(stages, stages.length + 1);
+            next[stages.length] = stage;
+            stages = next;
+      }
+
+      public static synchronized void removeStage(CullingStage stage) {
+            CullingStage[] current = stages;
+            for (int i = 0; i < current.length; i++) {
+                  if (current[i] == stage) {
+                        CullingStage[] next = new CullingStage[current.length - 1];
+                        System.arraycopy(current, 0, next, 0, i);
+                        System.arraycopy(current, i + 1, next, i, current.length - i - 1);
+                        stages = next;
+                        return;
+                  }
+            }
+      }
+
+      public static synchronized void clearStages() {
+            stages = new CullingStage[0];
+      }
+
+      public static CullingStage[] getStages() {
+            return stages.clone();
+      }
+
+      /**
+       * Determine if any culling stage is registered
+       *
+       * @return Whether sends are culled or not
+       */
+      public static boolean isActive() {
+            return stages.length > 0;
+      }
+
+      /**
+       * Determine if a particle at a point should not be sent to a player
+       * <p/>
+       * Particles in another world than the player are always culled, before any stage is asked
+       *
+       * @param player Receiver of the particle
+       * @param world  World of the particle
+       * @param x      X coordinate of the particle
+       * @param y      Y coordinate of the particle
+       * @param z      Z coordinate of the particle
+       * @return Whether one of the stages culled the send or not
+       */
+      public static boolean isCulled(Player player, World world, double x, double y, double z) {
+            CullingStage[] current = stages;
+            if (current.length == 0) {
+                  return false;
+            }
+
+            PlayerSnapshot snapshot = PlayerSnapshot.current();
+            int index = snapshot == null ? -1 : snapshot.indexOf(player);
+            if (index != -1) {
+                  return isCulled(current, player, snapshot.getWorld(index), snapshot.getX(index), snapshot.getY(index), snapshot.getZ(index),
+                          snapshot.getLookX(index), snapshot.getLookY(index), snapshot.getLookZ(index), world, x, y, z);
+            }
+
+            Location location = player.getLocation();
+            Vector look = location.getDirection();
+            return isCulled(current, player, location.getWorld(), location.getX(), location.getY(), location.getZ(),
+                    look.getX(), look.getY(), look.getZ(), world, x, y, z);
+      }
+
+      /**
+       * Returns the packets of all points which are not culled for a player
+       *
+       * @param player  Receiver of the packets
+       * @param points  Points the packets were built for
+       * @param packets One packet per point
+       * @return The given packets if none was culled, otherwise a new array of the remaining packets
+       */
+      public static Object[] filter(Player player, PointBuffer points, Object[] packets) {
+            Object[] visible = null;
+            int count = 0;
+            for (int i = 0; i < packets.length; i++) {
+                  boolean culled = isCulled(player, points.getWorld(), points.getX(i), points.getY(i), points.getZ(i));
+                  if (culled && visible == null) {
+                        visible = new Object[packets.length - 1];
+                        System.arraycopy(packets, 0, visible, 0, i);
+                        count = i;
+                  } else if (!culled && visible != null) {
+                        visible[count++] = packets[i];
+                  }
+            }
+            if (visible == null) {
+                  return packets;
+            }
+            return count == visible.length ? visible : Arrays.copyOf(visible, count);
+      }
+
+      private static boolean isCulled(CullingStage[] stages, Player player, World playerWorld, double px, double py, double pz,
+                                      double lookX, double lookY, double lookZ, World world, double x, double y, double z) {
+            // A player in another world can never see the particle, so no stage needs to look at it
+            if (playerWorld != world) {
+                  ParticleMetrics.countCulled();
+                  return true;
+            }
+            for (CullingStage stage : stages) {
+                  if (stage.shouldCull(player, world, px, py, pz, lookX, lookY, lookZ, x, y, z)) {
+                        stage.countCulled();
+                        ParticleMetrics.countCulled();
+                        return true;
+                  }
+            }
+            return false;
+      }
+}
@@ -1,16 +1,22 @@
 package me.imodzombies4fun.particle.lib.view;
 
-import org.bukkit.Bukkit;
+import me.imodzombies4fun.particle.lib.api.PointBuffer;
+import me.imodzombies4fun.particle.lib.metrics.ParticleMetrics;
 import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.bukkit.util.Vector;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -41,17 +47,7 @@ import java.util.Map.Entry;
  */
 public class ParticleEngine {
 
-      private static final Map<String, ParticleType> NAME_MAP = new HashMap<String, ParticleType>();
-      private static final Map<Integer, ParticleType> ID_MAP = new HashMap<Integer, ParticleType>();
-
-
-      // Initialize map for quick name and id lookup
-      static {
-            for (ParticleType effect : ParticleType.values()) {
-                  NAME_MAP.put(effect.name, effect);
-                  ID_MAP.put(effect.id, effect);
-            }
-      }
+      private static final double LONG_DISTANCE_SQUARED = 256 * 256;
 
       /**
        * Returns the particle effect with the given name
@@ -60,13 +56,7 @@ public class ParticleEngine {
        * @return The particle effect
        */
       public static ParticleType fromName(String name) {
-            for (Entry<String, ParticleType> entry : NAME_MAP.entrySet()) {
-                  if (!entry.getKey().equalsIgnoreCase(name)) {
-                        continue;
-                  }
-                  return entry.getValue();
-            }
-            return null;
+            return ParticleRegistry.fromName(name);
       }
 
       /**
@@ -76,40 +66,214 @@ public class ParticleEngine {
        * @return The particle effect
        */
       public static ParticleType fromId(int id) {
-            for (Entry<Integer, ParticleType> entry : ID_MAP.entrySet()) {
-                  if (entry.getKey() != id) {
+            return ParticleRegistry.fromId(id);
+      }
+
+      /**
+       * Determine if a particle which requires water can be displayed at a certain location
+       * <p/>
+       * Blocks are read through the {@link BlockCache}, so the chunk of the location is never loaded for the check
+       *
+       * @param location Location to check
+       * @return Whether the chunk of the location is loaded or not, particles in unloaded chunks are skipped
+       * @throws IllegalArgumentException If there is no water at the location
+       */
+      private static boolean checkWater(Location location)
+              throws IllegalArgumentException {
+            World world = location.getWorld();
+            int x = Location.locToBlock(location.getX());
+            int z = Location.locToBlock(location.getZ());
+            if (!BlockCache.isLoaded(world, x, z)) {
+                  return false;
+            }
+            if (!BlockCache.isWater(world, x, Location.locToBlock(location.getY()), z)) {
+                  throw new IllegalArgumentException("There is no water at the center location");
+            }
+            return true;
+      }
+
+      /**
+       * Sends a packet to the specified players, players more than 256 blocks away from the center receive a long distance copy of it
+       * <p/>
+       * The distances are decided once for the whole receiver list, reading positions from the player snapshot. A second
+       * packet is only built if the receivers actually lie on both sides of the threshold
+       *
+       * @param packet  Packet without long distance
+       * @param center  Center location of the effect
+       * @param players Receivers of the effect
+       */
+      private static void sendByDistance(ParticlePacket packet, Location center, List<Player> players) {
+            PlayerSnapshot snapshot = PlayerSnapshot.current();
+            World world = center.getWorld();
+            double x = center.getX();
+            double y = center.getY();
+            double z = center.getZ();
+            List<Player> far = null;
+            for (int i = 0, size = players.size(); i < size; i++) {
+                  Player player = players.get(i);
+                  if (distanceSquared(snapshot, player, world, x, y, z) >= LONG_DISTANCE_SQUARED) {
+                        if (far == null) {
+                              far = new ArrayList<>();
+                        }
+                        far.add(player);
+                  }
+            }
+
+            if (far == null) {
+                  packet.sendTo(center, players);
+            } else if (far.size() == players.size()) {
+                  packet.toLongDistance().sendTo(center, players);
+            } else {
+                  packet.sendTo(center, near(players, far));
+                  packet.toLongDistance().sendTo(center, far);
+            }
+      }
+
+      /**
+       * Sends a packet at several points to the specified players, players more than 256 blocks away from one of the points receive a long distance copy of it
+       * <p/>
+       * Players are measured against a sphere around all points first, only players the sphere reaches past the threshold
+       * are measured against every single point
+       *
+       * @param packet  Packet without long distance
+       * @param points  Points of the effect
+       * @param players Receivers of the effect
+       * @see #sendByDistance(ParticlePacket, Location, List)
+       */
+      private static void sendByDistance(ParticlePacket packet, PointBuffer points, List<Player> players) {
+            World world = points.getWorld();
+            int size = points.size();
+            double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY, minZ = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY, maxZ = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < size; i++) {
+                  minX = Math.min(minX, points.getX(i));
+                  minY = Math.min(minY, points.getY(i));
+                  minZ = Math.min(minZ, points.getZ(i));
+                  maxX = Math.max(maxX, points.getX(i));
+                  maxY = Math.max(maxY, points.getY(i));
+                  maxZ = Math.max(maxZ, points.getZ(i));
+            }
+            double centerX = (minX + maxX) / 2;
+            double centerY = (minY + maxY) / 2;
+            double centerZ = (minZ + maxZ) / 2;
+            double dx = maxX - centerX;
+            double dy = maxY - centerY;
+            double dz = maxZ - centerZ;
+            double radius = Math.sqrt(dx * dx + dy * dy + dz * dz);
+
+            PlayerSnapshot snapshot = PlayerSnapshot.current();
+            List<Player> far = null;
+            for (int i = 0, count = players.size(); i < count; i++) {
+                  Player player = players.get(i);
+                  double distance = Math.sqrt(distanceSquared(snapshot, player, world, centerX, centerY, centerZ)) + radius;
+                  if (distance * distance < LONG_DISTANCE_SQUARED) {
                         continue;
                   }
-                  return entry.getValue();
+                  for (int j = 0; j < size; j++) {
+                        if (distanceSquared(snapshot, player, world, points.getX(j), points.getY(j), points.getZ(j)) >= LONG_DISTANCE_SQUARED) {
+                              if (far == null) {
+                                    far = new ArrayList<>();
+                              }
+                              far.add(player);
+                              break;
+                        }
+                  }
+            }
+
+            if (far == null) {
+                  packet.sendTo(points, players);
+            } else if (far.size() == players.size()) {
+                  packet.toLongDistance().sendTo(points, players);
+            } else {
+                  packet.sendTo(points, near(players, far));
+                  packet.toLongDistance().sendTo(points, far);
             }
-            return null;
       }
 
       /**
-       * Determine if water is at a certain location
+       * Returns the players of a list which are not part of its far players
        *
-       * @param location Location to check
-       * @return Whether water is at this location or not
+       * @param players Players
+       * @param far     Far players in the same order as in the list
+       * @return The near players
        */
-      private static boolean isWater(Location location) {
-            Material material = location.getBlock().getType();
-            return material == Material.WATER || material == Material.STATIONARY_WATER;
+      private static List<Player> near(List<Player> players, List<Player> far) {
+            List<Player> near = new ArrayList<>(players.size() - far.size());
+            int next = 0;
+            for (int i = 0, size = players.size(); i < size; i++) {
+                  Player player = players.get(i);
+                  if (next < far.size() && far.get(next) == player) {
+                        ++next;
+                  } else {
+                        near.add(player);
+                  }
+            }
+            return near;
       }
 
       /**
-       * Determine if the distance between @param location and one of the players exceeds 256
+       * Returns the squared distance between a player and a point, preferring the position captured in the snapshot
+       * <p/>
+       * Players are only asked for their location if they are missing from the snapshot, e.g. because they joined during the current tick
        *
-       * @param location Location to check
-       * @return Whether the distance exceeds 256 or not
+       * @param snapshot Current player snapshot, may be <code>null</code>
+       * @param player   Player to measure from
+       * @param world    World of the point
+       * @param x        X coordinate of the point
+       * @param y        Y coordinate of the point
+       * @param z        Z coordinate of the point
+       * @return The squared distance
        */
-      private static boolean isLongDistance(Location location, List<Player> players) {
-            for (Player player : players) {
-                  if (player.getLocation().distanceSquared(location) < 65536) {
+      private static double distanceSquared(PlayerSnapshot snapshot, Player player, World world, double x, double y, double z) {
+            if (snapshot != null) {
+                  double distance = snapshot.distanceSquared(player, world, x, y, z);
+                  if (distance >= 0) {
+                        return distance;
+                  }
+            }
+            Location location = player.getLocation();
+            if (location.getWorld() != world) {
+                  return Double.POSITIVE_INFINITY;
+            }
+            double dx = location.getX() - x;
+            double dy = location.getY() - y;
+            double dz = location.getZ() - z;
+            return dx * dx + dy * dy + dz * dz;
+      }
+
+      /**
+       * Determine at which points a particle which requires water can be displayed
+       *
+       * @param points Points to check
+       * @return The points in loaded chunks, which is the buffer itself if all of them are
+       * @throws IllegalArgumentException If there is no water at one of the points in a loaded chunk
+       * @see #checkWater(Location)
+       */
+      private static PointBuffer checkWater(PointBuffer points)
+              throws IllegalArgumentException {
+            World world = points.getWorld();
+            PointBuffer loaded = points;
+            for (int i = 0, size = points.size(); i < size; i++) {
+                  int x = Location.locToBlock(points.getX(i));
+                  int z = Location.locToBlock(points.getZ(i));
+                  if (!BlockCache.isLoaded(world, x, z)) {
+                        if (loaded == points) {
+                              loaded = new PointBuffer(size);
+                              loaded.reset(world, points.getPlayers());
+                              for (int j = 0; j < i; j++) {
+                                    loaded.add(points.getX(j), points.getY(j), points.getZ(j));
+                              }
+                        }
                         continue;
                   }
-                  return true;
+                  if (!BlockCache.isWater(world, x, Location.locToBlock(points.getY(i)), z)) {
+                        throw new IllegalArgumentException("There is no water at one of the points");
+                  }
+                  if (loaded != points) {
+                        loaded.add(points.getX(i), points.getY(i), points.getZ(i));
+                  }
             }
-            return false;
+            return loaded;
       }
 
       /**
@@ -164,8 +328,8 @@ public class ParticleEngine {
             if (type.hasProperty(ParticleProperty.REQUIRES_DATA)) {
                   throw new ParticleDataException("This particle effect requires additional data");
             }
-            if (type.hasProperty(ParticleProperty.REQUIRES_WATER) && !isWater(center)) {
-                  throw new IllegalArgumentException("There is no water at the center location");
+            if (type.hasProperty(ParticleProperty.REQUIRES_WATER) && !checkWater(center)) {
+                  return;
             }
             new ParticlePacket(type, offsetX, offsetY, offsetZ, speed, amount, range > 256, null).sendTo(center, range);
       }
@@ -195,10 +359,10 @@ public class ParticleEngine {
             if (type.hasProperty(ParticleProperty.REQUIRES_DATA)) {
                   throw new ParticleDataException("This particle effect requires additional data");
             }
-            if (type.hasProperty(ParticleProperty.REQUIRES_WATER) && !isWater(center)) {
-                  throw new IllegalArgumentException("There is no water at the center location");
+            if (type.hasProperty(ParticleProperty.REQUIRES_WATER) && !checkWater(center)) {
+                  return;
             }
-            new ParticlePacket(type, offsetX, offsetY, offsetZ, speed, amount, isLongDistance(center, players), null).sendTo(center, players);
+            sendByDistance(new ParticlePacket(type, offsetX, offsetY, offsetZ, speed, amount, false, null), center, players);
       }
 
       /**
@@ -222,6 +386,41 @@ public class ParticleEngine {
             display(type, offsetX, offsetY, offsetZ, speed, amount, center, Arrays.asList(players));
       }
 
+      /**
+       * Displays a particle effect at several points at once which is only visible for the specified players
+       * <p/>
+       * Every player receives the packets of all points in one pass
+       *
+       * @param type    Particle type to display
+       * @param offsetX Maximum distance particles can fly away from the center on the x-axis
+       * @param offsetY Maximum distance particles can fly away from the center on the y-axis
+       * @param offsetZ Maximum distance particles can fly away from the center on the z-axis
+       * @param speed   Display speed of the particles
+       * @param amount  Amount of particles
+       * @param points  Points of the effect
+       * @param players Receivers of the effect
+       * @throws ParticleVersionException If the particle effect is not supported by the server version
+       * @throws ParticleDataException    If the particle effect requires additional data
+       * @throws IllegalArgumentException If the particle effect requires water and none is at one of the points
+       * @see ParticlePacket#sendTo(PointBuffer, List)
+       */
+      public static void display(ParticleType type, float offsetX, float offsetY, float offsetZ, float speed, int amount, PointBuffer points, List<Player> players)
+              throws ParticleVersionException, ParticleDataException, IllegalArgumentException {
+            if (!type.isSupported()) {
+                  throw new ParticleVersionException("This particle effect is not supported by your server version");
+            }
+            if (type.hasProperty(ParticleProperty.REQUIRES_DATA)) {
+                  throw new ParticleDataException("This particle effect requires additional data");
+            }
+            if (type.hasProperty(ParticleProperty.REQUIRES_WATER)) {
+                  points = checkWater(points);
+                  if (points.isEmpty()) {
+                        return;
+                  }
+            }
+            sendByDistance(new ParticlePacket(type, offsetX, offsetY, offsetZ, speed, amount, false, null), points, players);
+      }
+
       /**
        * Displays a single particle which flies into a determined direction and is only visible for all players within a certain range in the world of @param center
        *
@@ -247,8 +446,8 @@ public class ParticleEngine {
             if (!type.hasProperty(ParticleProperty.DIRECTIONAL)) {
                   throw new IllegalArgumentException("This particle effect is not directional");
             }
-            if (type.hasProperty(ParticleProperty.REQUIRES_WATER) && !isWater(center)) {
-                  throw new IllegalArgumentException("There is no water at the center location");
+            if (type.hasProperty(ParticleProperty.REQUIRES_WATER) && !checkWater(center)) {
+                  return;
             }
             new ParticlePacket(type, direction, speed, range > 256, null).sendTo(center, range);
       }
@@ -278,10 +477,10 @@ public class ParticleEngine {
             if (!type.hasProperty(ParticleProperty.DIRECTIONAL)) {
                   throw new IllegalArgumentException("This particle effect is not directional");
             }
-            if (type.hasProperty(ParticleProperty.REQUIRES_WATER) && !isWater(center)) {
-                  throw new IllegalArgumentException("There is no water at the center location");
+            if (type.hasProperty(ParticleProperty.REQUIRES_WATER) && !checkWater(center)) {
+                  return;
             }
-            new ParticlePacket(type, direction, speed, isLongDistance(center, players), null).sendTo(center, players);
+            sendByDistance(new ParticlePacket(type, direction, speed, false, null), center, players);
       }
 
       /**
@@ -302,6 +501,41 @@ public class ParticleEngine {
             display(type, direction, speed, center, Arrays.asList(players));
       }
 
+      /**
+       * Displays single particles at several points at once which fly into a determined direction and are only visible for the specified players
+       * <p/>
+       * Every player receives the packets of all points in one pass
+       *
+       * @param type      Particle type to display
+       * @param direction Direction of the particles
+       * @param speed     Display speed of the particles
+       * @param points    Points of the effect
+       * @param players   Receivers of the effect
+       * @throws ParticleVersionException If the particle effect is not supported by the server version
+       * @throws ParticleDataException    If the particle effect requires additional data
+       * @throws IllegalArgumentException If the particle effect is not directional or if it requires water and none is at one of the points
+       * @see ParticlePacket#sendTo(PointBuffer, List)
+       */
+      public static void display(ParticleType type, Vector direction, float speed, PointBuffer points, List<Player> players)
+              throws ParticleVersionException, ParticleDataException, IllegalArgumentException {
+            if (!type.isSupported()) {
+                  throw new ParticleVersionException("This particle effect is not supported by your server version");
+            }
+            if (type.hasProperty(ParticleProperty.REQUIRES_DATA)) {
+                  throw new ParticleDataException("This particle effect requires additional data");
+            }
+            if (!type.hasProperty(ParticleProperty.DIRECTIONAL)) {
+                  throw new IllegalArgumentException("This particle effect is not directional");
+            }
+            if (type.hasProperty(ParticleProperty.REQUIRES_WATER)) {
+                  points = checkWater(points);
+                  if (points.isEmpty()) {
+                        return;
+                  }
+            }
+            sendByDistance(new ParticlePacket(type, direction, speed, false, null), points, players);
+      }
+
       /**
        * Displays a single particle which is colored and only visible for all players within a certain range in the world of @param center
        *
@@ -351,7 +585,7 @@ public class ParticleEngine {
             if (!isColorCorrect(type, color)) {
                   throw new ParticleColorException("The particle color type is incorrect");
             }
-            new ParticlePacket(type, color, isLongDistance(center, players)).sendTo(center, players);
+            sendByDistance(new ParticlePacket(type, color, false), center, players);
       }
 
       /**
@@ -370,6 +604,33 @@ public class ParticleEngine {
             display(type, color, center, Arrays.asList(players));
       }
 
+      /**
+       * Displays single colored particles at several points at once which are only visible for the specified players
+       * <p/>
+       * Every player receives the packets of all points in one pass
+       *
+       * @param type    Particle type to display
+       * @param color   Color of the particles
+       * @param points  Points of the effect
+       * @param players Receivers of the effect
+       * @throws ParticleVersionException If the particle effect is not supported by the server version
+       * @throws ParticleColorException   If the particle effect is not colorable or the color type is incorrect
+       * @see ParticlePacket#sendTo(PointBuffer, List)
+       */
+      public static void display(ParticleType type, ParticleColor color, PointBuffer points, List<Player> players)
+              throws ParticleVersionException, ParticleColorException {
+            if (!type.isSupported()) {
+                  throw new ParticleVersionException("This particle effect is not supported by your server version");
+            }
+            if (!type.hasProperty(ParticleProperty.COLOR)) {
+                  throw new ParticleColorException("This particle effect is not colorable");
+            }
+            if (!isColorCorrect(type, color)) {
+                  throw new ParticleColorException("The particle color type is incorrect");
+            }
+            sendByDistance(new ParticlePacket(type, color, false), points, players);
+      }
+
       /**
        * Displays a particle effect which requires additional data and is only visible for all players within a certain range in the world of @param center
        *
@@ -429,7 +690,7 @@ public class ParticleEngine {
             if (!isDataCorrect(type, data)) {
                   throw new ParticleDataException("The particle data type is incorrect");
             }
-            new ParticlePacket(type, offsetX, offsetY, offsetZ, speed, amount, isLongDistance(center, players), data).sendTo(center, players);
+            sendByDistance(new ParticlePacket(type, offsetX, offsetY, offsetZ, speed, amount, false, data), center, players);
       }
 
       /**
@@ -453,6 +714,38 @@ public class ParticleEngine {
             display(type, data, offsetX, offsetY, offsetZ, speed, amount, center, Arrays.asList(players));
       }
 
+      /**
+       * Displays a particle effect which requires additional data at several points at once and is only visible for the specified players
+       * <p/>
+       * Every player receives the packets of all points in one pass
+       *
+       * @param type    Particle type to display
+       * @param data    Data of the effect
+       * @param offsetX Maximum distance particles can fly away from the center on the x-axis
+       * @param offsetY Maximum distance particles can fly away from the center on the y-axis
+       * @param offsetZ Maximum distance particles can fly away from the center on the z-axis
+       * @param speed   Display speed of the particles
+       * @param amount  Amount of particles
+       * @param points  Points of the effect
+       * @param players Receivers of the effect
+       * @throws ParticleVersionException If the particle effect is not supported by the server version
+       * @throws ParticleDataException    If the particle effect does not require additional data or if the data type is incorrect
+       * @see ParticlePacket#sendTo(PointBuffer, List)
+       */
+      public static void display(ParticleType type, ParticleData data, float offsetX, float offsetY, float offsetZ, float speed, int amount, PointBuffer points, List<Player> players)
+              throws ParticleVersionException, ParticleDataException {
+            if (!type.isSupported()) {
+                  throw new ParticleVersionException("This particle effect is not supported by your server version");
+            }
+            if (!type.hasProperty(ParticleProperty.REQUIRES_DATA)) {
+                  throw new ParticleDataException("This particle effect does not require additional data");
+            }
+            if (!isDataCorrect(type, data)) {
+                  throw new ParticleDataException("The particle data type is incorrect");
+            }
+            sendByDistance(new ParticlePacket(type, offsetX, offsetY, offsetZ, speed, amount, false, data), points, players);
+      }
+
       /**
        * Displays a single particle which requires additional data that flies into a determined direction and is only visible for all players within a certain range in the world of @param center
        *
@@ -506,7 +799,7 @@ public class ParticleEngine {
             if (!isDataCorrect(type, data)) {
                   throw new ParticleDataException("The particle data type is incorrect");
             }
-            new ParticlePacket(type, direction, speed, isLongDistance(center, players), data).sendTo(center, players);
+            sendByDistance(new ParticlePacket(type, direction, speed, false, data), center, players);
       }
 
       /**
@@ -527,6 +820,101 @@ public class ParticleEngine {
             display(type, data, direction, speed, center, Arrays.asList(players));
       }
 
+      /**
+       * Displays single particles which require additional data at several points at once that fly into a determined direction and are only visible for the specified players
+       * <p/>
+       * Every player receives the packets of all points in one pass
+       *
+       * @param type      Particle type to display
+       * @param data      Data of the effect
+       * @param direction Direction of the particles
+       * @param speed     Display speed of the particles
+       * @param points    Points of the effect
+       * @param players   Receivers of the effect
+       * @throws ParticleVersionException If the particle effect is not supported by the server version
+       * @throws ParticleDataException    If the particle effect does not require additional data or if the data type is incorrect
+       * @see ParticlePacket#sendTo(PointBuffer, List)
+       */
+      public static void display(ParticleType type, ParticleData data, Vector direction, float speed, PointBuffer points, List<Player> players)
+              throws ParticleVersionException, ParticleDataException {
+            if (!type.isSupported()) {
+                  throw new ParticleVersionException("This particle effect is not supported by your server version");
+            }
+            if (!type.hasProperty(ParticleProperty.REQUIRES_DATA)) {
+                  throw new ParticleDataException("This particle effect does not require additional data");
+            }
+            if (!isDataCorrect(type, data)) {
+                  throw new ParticleDataException("The particle data type is incorrect");
+            }
+            sendByDistance(new ParticlePacket(type, direction, speed, false, data), points, players);
+      }
+
+      /**
+       * Validates a particle once and resolves how it is sent, so it can be displayed repeatedly without checking it again
+       * <p/>
+       * The variant is picked in the same order {@link me.imodzombies4fun.particle.lib.api.Particle} always picked it: a
+       * color wins over data, data is sent with the direction if there is one and with the offsets otherwise, then comes
+       * the direction and finally the plain offsets. Every variant ends up as the same packet attributes, so displaying
+       * the prepared particle does not branch on it anymore. Only the water check depends on where the particle is
+       * displayed and is left to {@link PreparedParticle}
+       *
+       * @param type      Particle type to display
+       * @param offsetX   Maximum distance particles can fly away from the center on the x-axis
+       * @param offsetY   Maximum distance particles can fly away from the center on the y-axis
+       * @param offsetZ   Maximum distance particles can fly away from the center on the z-axis
+       * @param speed     Display speed of the particles
+       * @param amount    Amount of particles
+       * @param direction Direction of the particle, may be <code>null</code>
+       * @param data      Data of the effect, may be <code>null</code>
+       * @param color     Color of the particle, may be <code>null</code>
+       * @return The prepared particle
+       * @throws ParticleVersionException If the particle effect is not supported by the server version
+       * @throws ParticleDataException    If the particle effect requires data it does not have, has data it does not require or the data type is incorrect
+       * @throws ParticleColorException   If the particle effect is not colorable or the color type is incorrect
+       * @throws IllegalArgumentException If the particle effect is not directional but has a direction or if the speed or amount is lower than 0
+       */
+      public static PreparedParticle prepare(ParticleType type, float offsetX, float offsetY, float offsetZ, float speed, int amount,
+                                             Vector direction, ParticleData data, ParticleColor color)
+              throws ParticleVersionException, ParticleDataException, ParticleColorException, IllegalArgumentException {
+            ParticlePacket.initialize();
+            int capabilities = ParticleRegistry.getCapabilities(type);
+            if ((capabilities & ParticleRegistry.SUPPORTED) == 0) {
+                  throw new ParticleVersionException("This particle effect is not supported by your server version");
+            }
+
+            if (color != null) {
+                  if ((capabilities & ParticleRegistry.COLORABLE) == 0) {
+                        throw new ParticleColorException("This particle effect is not colorable");
+                  }
+                  if (!isColorCorrect(type, color)) {
+                        throw new ParticleColorException("The particle color type is incorrect");
+                  }
+                  return new PreparedParticle(type, color.getValueX(), color.getValueY(), color.getValueZ(), 1, 0, null, false);
+            }
+
+            if (data != null) {
+                  if ((capabilities & ParticleRegistry.REQUIRES_DATA) == 0) {
+                        throw new ParticleDataException("This particle effect does not require additional data");
+                  }
+                  if (!isDataCorrect(type, data)) {
+                        throw new ParticleDataException("The particle data type is incorrect");
+                  }
+            } else {
+                  if ((capabilities & ParticleRegistry.REQUIRES_DATA) != 0) {
+                        throw new ParticleDataException("This particle effect requires additional data");
+                  }
+                  if (direction != null && (capabilities & ParticleRegistry.DIRECTIONAL) == 0) {
+                        throw new IllegalArgumentException("This particle effect is not directional");
+                  }
+            }
+
+            boolean requiresWater = (capabilities & ParticleRegistry.REQUIRES_WATER) != 0;
+            if (direction != null) {
+                  return new PreparedParticle(type, (float) direction.getX(), (float) direction.getY(), (float) direction.getZ(), speed, 0, data, requiresWater);
+            }
+            return new PreparedParticle(type, offsetX, offsetY, offsetZ, speed, amount, data, requiresWater);
+      }
+
       /**
        * Represents the property of a particle effect
        * <p/>
@@ -859,6 +1247,69 @@ public class ParticleEngine {
 
       }
 
+      /**
+       * A particle which has been validated and resolved into its packet attributes by {@link #prepare(ParticleType, float, float, float, float, int, Vector, ParticleData, ParticleColor)}
+       * <p/>
+       * Instances are immutable and build their packet once, displaying one only checks for water if its type requires it and skips
+       * locations in chunks that are not loaded then
+       */
+      public static final class PreparedParticle {
+            private final ParticleType type;
+            private final ParticlePacket packet;
+            private final boolean requiresWater;
+
+            private PreparedParticle(ParticleType type, float offsetX, float offsetY, float offsetZ, float speed, int amount, ParticleData data, boolean requiresWater)
+                    throws IllegalArgumentException {
+                  this.type = type;
+                  this.packet = new ParticlePacket(type, offsetX, offsetY, offsetZ, speed, amount, false, data);
+                  this.requiresWater = requiresWater;
+            }
+
+            /**
+             * Returns the particle type of this particle
+             *
+             * @return The particle type
+             */
+            public ParticleType getType() {
+                  return type;
+            }
+
+            /**
+             * Displays this particle for the specified players
+             *
+             * @param center  Center location of the effect
+             * @param players Receivers of the effect
+             * @throws IllegalArgumentException If the particle effect requires water and none is at the center location
+             * @see ParticlePacket#sendTo(Location, List)
+             */
+            public void display(Location center, List<Player> players)
+                    throws IllegalArgumentException {
+                  if (requiresWater && !checkWater(center)) {
+                        return;
+                  }
+                  sendByDistance(packet, center, players);
+            }
+
+            /**
+             * Displays this particle at several points at once for the specified players
+             *
+             * @param points  Points of the effect
+             * @param players Receivers of the effect
+             * @throws IllegalArgumentException If the particle effect requires water and none is at one of the points
+             * @see ParticlePacket#sendTo(PointBuffer, List)
+             */
+            public void display(PointBuffer points, List<Player> players)
+                    throws IllegalArgumentException {
+                  if (requiresWater) {
+                        points = checkWater(points);
+                        if (points.isEmpty()) {
+                              return;
+                        }
+                  }
+                  sendByDistance(packet, points, players);
+            }
+      }
+
       /**
        * Represents a runtime exception that is thrown either if the displayed particle effect requires data and has none or vice-versa or if the data type is incorrect
        * <p/>
@@ -938,6 +1389,9 @@ public class ParticleEngine {
             private static Method getHandle;
             private static Field playerConnection;
             private static Method sendPacket;
+            private static MethodHandle sendHandle;
+            private static PacketAccessor accessor;
+            private static final PrototypeCache prototypes = new PrototypeCache(256);
             private static boolean initialized;
             private final ParticleType effect;
             private final float offsetX;
@@ -947,6 +1401,8 @@ public class ParticleEngine {
             private final int amount;
             private final boolean longDistance;
             private final ParticleData data;
+            private PacketPrototype prototype;
+            private ParticlePacket longDistanceCopy;
             private Object packet;
 
             /**
@@ -1011,7 +1467,40 @@ public class ParticleEngine {
             }
 
             /**
-             * Initializes {@link #packetConstructor}, {@link #getHandle}, {@link #playerConnection} and {@link #sendPacket} and sets {@link #initialized} to <code>true</code> if it succeeds
+             * Returns a copy of this packet with the maximum distance increased from 256 to 65536
+             * <p/>
+             * The copy is created once and kept, so a packet that is sent repeatedly does not validate it again
+             *
+             * @return The long distance packet, which is this packet if it already is one
+             */
+            private ParticlePacket toLongDistance() {
+                  if (longDistance) {
+                        return this;
+                  }
+                  ParticlePacket copy = longDistanceCopy;
+                  if (copy == null) {
+                        copy = new ParticlePacket(effect, offsetX, offsetY, offsetZ, speed, amount, true, data);
+                        longDistanceCopy = copy;
+                  }
+                  return copy;
+            }
+
+            /**
+             * Returns the prototype of this packet, looking it up in the prototype cache on first use
+             *
+             * @return The packet prototype
+             */
+            private PacketPrototype prototype() {
+                  PacketPrototype prototype = this.prototype;
+                  if (prototype == null) {
+                        prototype = prototypes.get(new PrototypeKey(effect, offsetX, offsetY, offsetZ, speed, amount, longDistance, data));
+                        this.prototype = prototype;
+                  }
+                  return prototype;
+            }
+
+            /**
+             * Initializes {@link #packetConstructor}, {@link #getHandle}, {@link #playerConnection}, {@link #sendPacket} and {@link #accessor} and sets {@link #initialized} to <code>true</code> if it succeeds
              * <p/>
              * <b>Note:</b> These fields only have to be initialized once, so it will return if {@link #initialized} is already set to <code>true</code>
              *
@@ -1032,7 +1521,10 @@ public class ParticleEngine {
                         getHandle = ReflectionUtil.getMethod("CraftPlayer", ReflectionUtil.PackageType.CRAFTBUKKIT_ENTITY, "getHandle");
                         playerConnection = ReflectionUtil.getField("EntityPlayer", ReflectionUtil.PackageType.MINECRAFT_SERVER, false, "playerConnection");
                         sendPacket = ReflectionUtil.getMethod(playerConnection.getType(), "sendPacket", ReflectionUtil.PackageType.MINECRAFT_SERVER.getClass("Packet"));
-                  } catch (Exception exception) {
+                        sendHandle = MethodHandles.lookup().unreflect(sendPacket).asType(MethodType.methodType(void.class, Object.class, Object.class));
+                        accessor = new PacketAccessor(packetClass);
+                        ParticleRegistry.initialize(version);
+                  } catch (Throwable exception) {
                         throw new VersionIncompatibleException("Your current bukkit version seems to be incompatible with this library", exception);
                   }
                   initialized = true;
@@ -1047,6 +1539,33 @@ public class ParticleEngine {
                   return version;
             }
 
+            /**
+             * Returns the NMS player connection of a player
+             *
+             * @param player Owner of the connection
+             * @return The player connection
+             * @throws PacketSendingException If the connection cannot be resolved
+             * @see ConnectionCache
+             */
+            static Object getConnection(Player player)
+                    throws PacketSendingException {
+                  try {
+                        return playerConnection.get(getHandle.invoke(player));
+                  } catch (Exception exception) {
+                        throw new PacketSendingException("Failed to resolve the connection of player '" + player.getName() + "'", exception);
+                  }
+            }
+
+            /**
+             * Returns {@link #sendPacket} as a handle taking the player connection and the packet
+             *
+             * @return The send handle
+             * @see ConnectionCache
+             */
+            static MethodHandle getSendHandle() {
+                  return sendHandle;
+            }
+
             /**
              * Determine if {@link #packetConstructor}, {@link #getHandle}, {@link #playerConnection} and {@link #sendPacket} are initialized
              *
@@ -1059,6 +1578,8 @@ public class ParticleEngine {
 
             /**
              * Initializes {@link #packet} with all set values
+             * <p/>
+             * Only the handles resolved by {@link #initialize()} are used here, so no field lookup happens per packet
              *
              * @param center Center location of the effect
              * @throws PacketInstantiationException If instantion fails due to an unknown error
@@ -1068,34 +1589,84 @@ public class ParticleEngine {
                   if (packet != null) {
                         return;
                   }
+                  packet = createPacket(center);
+            }
+
+            /**
+             * Creates a new NMS packet with all set values at the given center
+             *
+             * @param center Center location of the effect
+             * @return The NMS packet
+             * @throws PacketInstantiationException If instantion fails due to an unknown error
+             */
+            private Object createPacket(Location center)
+                    throws PacketInstantiationException {
+                  return createPacket((float) center.getX(), (float) center.getY(), (float) center.getZ());
+            }
+
+            /**
+             * Creates a new NMS packet with all set values at the given coordinates
+             *
+             * @param x X coordinate of the center
+             * @param y Y coordinate of the center
+             * @param z Z coordinate of the center
+             * @return The NMS packet
+             * @throws PacketInstantiationException If instantion fails due to an unknown error
+             */
+            private Object createPacket(float x, float y, float z)
+                    throws PacketInstantiationException {
                   try {
-                        packet = packetConstructor.newInstance();
-                        if (version < 8) {
-                              String name = effect.getName();
-                              if (data != null) {
-                                    name += data.getPacketDataString();
-                              }
-                              ReflectionUtil.setValue(packet, true, "a", name);
-                        } else {
-                              ReflectionUtil.setValue(packet, true, "a", enumParticle.getEnumConstants()[effect.getId()]);
-                              ReflectionUtil.setValue(packet, true, "j", longDistance);
-                              if (data != null) {
-                                    ReflectionUtil.setValue(packet, true, "k", data.getPacketData());
-                              }
-                        }
-                        ReflectionUtil.setValue(packet, true, "b", (float) center.getX());
-                        ReflectionUtil.setValue(packet, true, "c", (float) center.getY());
-                        ReflectionUtil.setValue(packet, true, "d", (float) center.getZ());
-                        ReflectionUtil.setValue(packet, true, "e", offsetX);
-                        ReflectionUtil.setValue(packet, true, "f", offsetY);
-                        ReflectionUtil.setValue(packet, true, "g", offsetZ);
-                        ReflectionUtil.setValue(packet, true, "h", speed);
-                        ReflectionUtil.setValue(packet, true, "i", amount);
-                  } catch (Exception exception) {
+                        Object packet = prototype().create(x, y, z);
+                        ParticleMetrics.countPacketsBuilt(effect, 1);
+                        return packet;
+                  } catch (Throwable exception) {
+                        ParticleMetrics.countException();
                         throw new PacketInstantiationException("Packet instantiation failed", exception);
                   }
             }
 
+            /**
+             * Encodes the packet at the given coordinates into a pooled netty buffer
+             *
+             * @param x X coordinate of the center
+             * @param y Y coordinate of the center
+             * @param z Z coordinate of the center
+             * @return The buffer, which has to be released once it is sent
+             * @throws PacketInstantiationException If encoding fails due to an unknown error
+             * @see PacketEncoding
+             */
+            private Object encodePacket(float x, float y, float z)
+                    throws PacketInstantiationException {
+                  try {
+                        Object buffer = PacketEncoding.encode(prototype().template, x, y, z);
+                        ParticleMetrics.countPacketsBuilt(effect, 1);
+                        return buffer;
+                  } catch (Throwable exception) {
+                        ParticleMetrics.countException();
+                        throw new PacketInstantiationException("Packet encoding failed", exception);
+                  }
+            }
+
+            /**
+             * Returns how often a packet prototype was found in the cache
+             *
+             * @return The amount of cache hits
+             * @see PrototypeCache
+             */
+            public static long getPrototypeHits() {
+                  return prototypes.getHits();
+            }
+
+            /**
+             * Returns how often a packet prototype had to be built
+             *
+             * @return The amount of cache misses
+             * @see PrototypeCache
+             */
+            public static long getPrototypeMisses() {
+                  return prototypes.getMisses();
+            }
+
             /**
              * Sends the packet to a single player and caches it
              *
@@ -1104,15 +1675,12 @@ public class ParticleEngine {
              * @throws PacketInstantiationException If instantion fails due to an unknown error
              * @throws PacketSendingException       If sending fails due to an unknown error
              * @see #initializePacket(Location)
+             * @see ConnectionCache#get(Player)
              */
             public void sendTo(Location center, Player player)
                     throws PacketInstantiationException, PacketSendingException {
                   initializePacket(center);
-                  try {
-                        sendPacket.invoke(playerConnection.get(getHandle.invoke(player)), packet);
-                  } catch (Exception exception) {
-                        throw new PacketSendingException("Failed to send the packet to player '" + player.getName() + "'", exception);
-                  }
+                  send(center, player, packet, null);
             }
 
             /**
@@ -1129,13 +1697,153 @@ public class ParticleEngine {
                         throw new IllegalArgumentException("The player list is empty");
                   }
 
-                  if (players == null || players.size() == 0) {
-                        return;
+                  sendAll(center, players);
+            }
+
+            /**
+             * Sends the packet to every player of a list, encoding it once for all of them if {@link PacketEncoding} is available
+             * <p/>
+             * The packets built here are local to the call, so the same instance can be sent from several threads at once
+             *
+             * @param center  Center location of the effect
+             * @param players Receivers of the packet
+             */
+            private void sendAll(Location center, List<Player> players) {
+                  float x = (float) center.getX();
+                  float y = (float) center.getY();
+                  float z = (float) center.getZ();
+                  Object encoded = PacketEncoding.isAvailable() ? encodePacket(x, y, z) : null;
+                  Object packet = encoded == null ? createPacket(x, y, z) : null;
+                  try {
+                        for (int i = 0, size = players.size(); i < size; i++) {
+                              packet = send(center, players.get(i), packet, encoded);
+                        }
+                  } finally {
+                        PacketEncoding.release(encoded);
                   }
+            }
 
-                  for (Player player : players) {
-                        sendTo(center, player);
+            /**
+             * Sends one packet per point to all players in the list
+             * <p/>
+             * All packets are built before the fan-out, so every player receives the whole batch in one pass and the receivers are only walked once
+             *
+             * @param points  Points of the effect
+             * @param players Receivers of the packets
+             * @throws IllegalArgumentException     If the player list is empty
+             * @throws PacketInstantiationException If instantion fails due to an unknown error
+             * @throws PacketSendingException       If sending fails due to an unknown error
+             * @see ConnectionCache.Connection#sendAll(Object[])
+             */
+            public void sendTo(PointBuffer points, List<Player> players)
+                    throws IllegalArgumentException, PacketInstantiationException, PacketSendingException {
+                  if (players.isEmpty()) {
+                        throw new IllegalArgumentException("The player list is empty");
                   }
+
+                  boolean encode = PacketEncoding.isAvailable();
+                  Object[] packets = new Object[points.size()];
+                  Object[] fallback = null;
+                  try {
+                        for (int i = 0; i < packets.length; i++) {
+                              float x = (float) points.getX(i);
+                              float y = (float) points.getY(i);
+                              float z = (float) points.getZ(i);
+                              packets[i] = encode ? encodePacket(x, y, z) : createPacket(x, y, z);
+                        }
+
+                        boolean culling = ParticleCulling.isActive();
+                        for (int i = 0, size = players.size(); i < size; i++) {
+                              Player player = players.get(i);
+                              ConnectionCache.Connection connection = ConnectionCache.get(player);
+                              boolean encoded = encode && connection.hasChannel();
+                              Object[] source = packets;
+                              if (encode && !encoded) {
+                                    if (fallback == null) {
+                                          fallback = createPackets(points);
+                                    }
+                                    source = fallback;
+                              }
+
+                              Object[] visible = culling ? ParticleCulling.filter(player, points, source) : source;
+                              if (visible.length == 0) {
+                                    continue;
+                              }
+                              int admitted = ParticleGovernor.admit(connection, effect, visible.length, prototype().size);
+                              if (admitted == 0) {
+                                    continue;
+                              }
+                              try {
+                                    if (encoded) {
+                                          connection.sendAllEncoded(ParticleGovernor.thin(visible, admitted));
+                                    } else {
+                                          connection.sendAll(ParticleGovernor.thin(visible, admitted));
+                                    }
+                                    ParticleMetrics.countSend(admitted);
+                              } catch (Throwable exception) {
+                                    ParticleMetrics.countException();
+                                    throw new PacketSendingException("Failed to send the packets to player '" + player.getName() + "'", exception);
+                              }
+                        }
+                  } finally {
+                        if (encode) {
+                              PacketEncoding.releaseAll(packets);
+                        }
+                  }
+            }
+
+            /**
+             * Creates one NMS packet per point
+             *
+             * @param points Points of the effect
+             * @return The NMS packets
+             * @throws PacketInstantiationException If instantion fails due to an unknown error
+             */
+            private Object[] createPackets(PointBuffer points)
+                    throws PacketInstantiationException {
+                  Object[] packets = new Object[points.size()];
+                  for (int i = 0; i < packets.length; i++) {
+                        packets[i] = createPacket((float) points.getX(i), (float) points.getY(i), (float) points.getZ(i));
+                  }
+                  return packets;
+            }
+
+            /**
+             * Sends a packet over the cached connection of a player unless it is culled or exceeds the budget of the player
+             *
+             * @param center  Center location of the effect
+             * @param player  Receiver of the packet
+             * @param packet  NMS packet at the center, <code>null</code> to build it once it is needed
+             * @param encoded Encoded packet at the center, may be <code>null</code>
+             * @return The NMS packet, which is built here if the player has no channel for the encoded packet
+             * @throws PacketSendingException If sending fails due to an unknown error
+             */
+            private Object send(Location center, Player player, Object packet, Object encoded)
+                    throws PacketSendingException {
+                  if (ParticleCulling.isCulled(player, center.getWorld(), center.getX(), center.getY(), center.getZ())) {
+                        return packet;
+                  }
+                  ConnectionCache.Connection connection = ConnectionCache.get(player);
+                  if (ParticleGovernor.admit(connection, effect, 1, prototype().size) == 0) {
+                        return packet;
+                  }
+                  try {
+                        if (encoded != null && connection.hasChannel()) {
+                              connection.sendEncoded(encoded);
+                        } else {
+                              if (packet == null) {
+                                    packet = createPacket(center);
+                              }
+                              connection.send(packet);
+                        }
+                        ParticleMetrics.countSend(1);
+                  } catch (PacketInstantiationException exception) {
+                        throw exception;
+                  } catch (Throwable exception) {
+                        ParticleMetrics.countException();
+                        throw new PacketSendingException("Failed to send the packet to player '" + player.getName() + "'", exception);
+                  }
+                  return packet;
             }
 
             /**
@@ -1145,20 +1853,289 @@ public class ParticleEngine {
              * @param range  Range in which players will receive the packet (Maximum range for particles is usually 16, but it can differ for some types)
              * @throws IllegalArgumentException If the range is lower than 1
              * @see #sendTo(Location center, Player player)
+             * @see PlayerGrid#getNearby(Location, double)
              */
-            @SuppressWarnings("deprecation")
             public void sendTo(Location center, double range)
                     throws IllegalArgumentException {
                   if (range < 1) {
                         throw new IllegalArgumentException("The range is lower than 1");
                   }
-                  String worldName = center.getWorld().getName();
-                  double squared = range * range;
-                  for (Player player : Bukkit.getOnlinePlayers()) {
-                        if (!player.getWorld().getName().equals(worldName) || player.getLocation().distanceSquared(center) > squared) {
-                              continue;
+                  List<Player> players = PlayerGrid.getNearby(center, range);
+                  if (players.isEmpty()) {
+                        return;
+                  }
+
+                  sendAll(center, players);
+            }
+
+            /**
+             * Holds the packet constructor and field setters of the particle packet as method handles
+             * <p/>
+             * The handles are resolved once per server version by {@link #initialize()} and typed to fit the packet fields exactly
+             */
+            private static final class PacketAccessor {
+                  private final MethodHandle constructor;
+                  private final MethodHandle particle;
+                  private final MethodHandle x;
+                  private final MethodHandle y;
+                  private final MethodHandle z;
+                  private final MethodHandle offsetX;
+                  private final MethodHandle offsetY;
+                  private final MethodHandle offsetZ;
+                  private final MethodHandle speed;
+                  private final MethodHandle amount;
+                  private final MethodHandle longDistance;
+                  private final MethodHandle data;
+                  private final MethodHandle fullConstructor;
+                  private final Object[] particles;
+
+                  /**
+                   * Resolve all handles for the given packet class
+                   *
+                   * @param packetClass Class of the particle packet
+                   * @throws ReflectiveOperationException If a field or the constructor of the packet cannot be found
+                   */
+                  private PacketAccessor(Class<?> packetClass)
+                          throws ReflectiveOperationException {
+                        MethodHandles.Lookup lookup = MethodHandles.lookup();
+                        constructor = lookup.unreflectConstructor(packetConstructor).asType(MethodType.methodType(Object.class));
+                        particle = setter(lookup, packetClass, "a", Object.class);
+                        x = setter(lookup, packetClass, "b", float.class);
+                        y = setter(lookup, packetClass, "c", float.class);
+                        z = setter(lookup, packetClass, "d", float.class);
+                        offsetX = setter(lookup, packetClass, "e", float.class);
+                        offsetY = setter(lookup, packetClass, "f", float.class);
+                        offsetZ = setter(lookup, packetClass, "g", float.class);
+                        speed = setter(lookup, packetClass, "h", float.class);
+                        amount = setter(lookup, packetClass, "i", int.class);
+                        if (version > 7) {
+                              longDistance = setter(lookup, packetClass, "j", boolean.class);
+                              data = setter(lookup, packetClass, "k", int[].class);
+                              particles = enumParticle.getEnumConstants();
+                        } else {
+                              longDistance = null;
+                              data = null;
+                              particles = null;
                         }
-                        sendTo(center, player);
+                        fullConstructor = fullConstructor(lookup, packetClass);
+                  }
+
+                  /**
+                   * Returns the constructor of the packet which takes every field, or <code>null</code> if the packet has none
+                   *
+                   * @param lookup      Lookup used to unreflect the constructor
+                   * @param packetClass Class of the particle packet
+                   * @return The constructor
+                   * @throws IllegalAccessException If the constructor cannot be accessed
+                   */
+                  private static MethodHandle fullConstructor(MethodHandles.Lookup lookup, Class<?> packetClass)
+                          throws IllegalAccessException {
+                        Class<?>[] expected = version > 7
+                                ? new Class<?>[]{enumParticle, boolean.class, float.class, float.class, float.class, float.class, float.class, float.class, float.class, int.class, int[].class}
+                                : new Class<?>[]{String.class, float.class, float.class, float.class, float.class, float.class, float.class, float.class, int.class};
+                        for (Constructor<?> constructor : packetClass.getConstructors()) {
+                              if (Arrays.equals(constructor.getParameterTypes(), expected)) {
+                                    return lookup.unreflectConstructor(constructor).asFixedArity();
+                              }
+                        }
+                        return null;
+                  }
+
+                  /**
+                   * Returns a setter for a declared field of the packet which accepts the packet as a plain object
+                   *
+                   * @param lookup      Lookup used to unreflect the field
+                   * @param packetClass Class of the particle packet
+                   * @param fieldName   Name of the field
+                   * @param valueType   Type of the value passed to the setter
+                   * @return The setter
+                   * @throws ReflectiveOperationException If the field cannot be found
+                   */
+                  private static MethodHandle setter(MethodHandles.Lookup lookup, Class<?> packetClass, String fieldName, Class<?> valueType)
+                          throws ReflectiveOperationException {
+                        Field field = ReflectionUtil.getField(packetClass, true, fieldName);
+                        return lookup.unreflectSetter(field).asType(MethodType.methodType(void.class, Object.class, valueType));
+                  }
+            }
+
+            /**
+             * Identifies a packet prototype by everything except the position of the particle
+             */
+            private static final class PrototypeKey {
+                  private final ParticleType effect;
+                  private final float offsetX;
+                  private final float offsetY;
+                  private final float offsetZ;
+                  private final float speed;
+                  private final int amount;
+                  private final boolean longDistance;
+                  private final ParticleData data;
+
+                  private PrototypeKey(ParticleType effect, float offsetX, float offsetY, float offsetZ, float speed, int amount, boolean longDistance, ParticleData data) {
+                        this.effect = effect;
+                        this.offsetX = offsetX;
+                        this.offsetY = offsetY;
+                        this.offsetZ = offsetZ;
+                        this.speed = speed;
+                        this.amount = amount;
+                        this.longDistance = longDistance;
+                        this.data = data;
+                  }
+
+                  @Override
+                  public boolean equals(Object object) {
+                        if (this == object) {
+                              return true;
+                        }
+                        if (!(object instanceof PrototypeKey)) {
+                              return false;
+                        }
+                        PrototypeKey other = (PrototypeKey) object;
+                        return effect == other.effect && data == other.data && amount == other.amount && longDistance == other.longDistance
+                                && Float.compare(offsetX, other.offsetX) == 0 && Float.compare(offsetY, other.offsetY) == 0
+                                && Float.compare(offsetZ, other.offsetZ) == 0 && Float.compare(speed, other.speed) == 0;
+                  }
+
+                  @Override
+                  public int hashCode() {
+                        int hash = effect.hashCode();
+                        hash = 31 * hash + Float.floatToIntBits(offsetX);
+                        hash = 31 * hash + Float.floatToIntBits(offsetY);
+                        hash = 31 * hash + Float.floatToIntBits(offsetZ);
+                        hash = 31 * hash + Float.floatToIntBits(speed);
+                        hash = 31 * hash + amount;
+                        hash = 31 * hash + (longDistance ? 1 : 0);
+                        hash = 31 * hash + System.identityHashCode(data);
+                        return hash;
+                  }
+            }
+
+            /**
+             * A particle packet with everything but the position already resolved
+             * <p/>
+             * If the packet has a constructor taking every field, all other values are bound to it and a new packet only costs that constructor call,
+             * otherwise the values are set through the {@link PacketAccessor}
+             */
+            private static final class PacketPrototype {
+                  private final PrototypeKey key;
+                  private final Object particle;
+                  private final MethodHandle factory;
+                  private final PacketEncoding.Template template;
+                  private final int size;
+
+                  private PacketPrototype(PrototypeKey key) {
+                        this.key = key;
+                        if (version < 8) {
+                              this.particle = key.data == null ? key.effect.getName() : key.effect.getName() + key.data.getPacketDataString();
+                              // Length prefix, packet id, name, seven floats and the amount
+                              this.size = 3 + ((String) particle).length() + 7 * 4 + 4;
+                        } else {
+                              this.particle = accessor.particles[key.effect.getId()];
+                              // Length prefix, packet id, particle id, long distance flag, seven floats, the amount and data varints
+                              this.size = 2 + 4 + 1 + 7 * 4 + 4 + (key.data == null ? 0 : key.data.getPacketData().length * 3);
+                        }
+                        this.template = PacketEncoding.template(version, version < 8 ? (String) particle : null, key.effect.getId(), key.longDistance,
+                                key.offsetX, key.offsetY, key.offsetZ, key.speed, key.amount, encodedData(key.data));
+
+                        MethodHandle constructor = accessor.fullConstructor;
+                        if (constructor == null) {
+                              this.factory = null;
+                        } else if (version < 8) {
+                              constructor = MethodHandles.insertArguments(constructor, 4, key.offsetX, key.offsetY, key.offsetZ, key.speed, key.amount);
+                              this.factory = MethodHandles.insertArguments(constructor, 0, particle)
+                                      .asType(MethodType.methodType(Object.class, float.class, float.class, float.class));
+                        } else {
+                              int[] packetData = key.data == null ? new int[0] : key.data.getPacketData();
+                              constructor = MethodHandles.insertArguments(constructor, 5, key.offsetX, key.offsetY, key.offsetZ, key.speed, key.amount, packetData);
+                              this.factory = MethodHandles.insertArguments(constructor, 0, particle, key.longDistance)
+                                      .asType(MethodType.methodType(Object.class, float.class, float.class, float.class));
+                        }
+                  }
+
+                  /**
+                   * Returns the data values the server writes for a particle, which are two for items and one for blocks
+                   *
+                   * @param data Data of the particle, may be <code>null</code>
+                   * @return The data values
+                   */
+                  private static int[] encodedData(ParticleData data) {
+                        if (data == null) {
+                              return new int[0];
+                        }
+                        int[] values = data.getPacketData();
+                        return data instanceof ItemData ? values : new int[]{values[0]};
+                  }
+
+                  /**
+                   * Creates a new NMS packet of this prototype at the given coordinates
+                   *
+                   * @param x X coordinate of the center
+                   * @param y Y coordinate of the center
+                   * @param z Z coordinate of the center
+                   * @return The NMS packet
+                   * @throws Throwable If the packet cannot be instantiated
+                   */
+                  private Object create(float x, float y, float z)
+                          throws Throwable {
+                        if (factory != null) {
+                              return (Object) factory.invokeExact(x, y, z);
+                        }
+
+                        Object packet = (Object) accessor.constructor.invokeExact();
+                        accessor.particle.invokeExact(packet, particle);
+                        if (version > 7) {
+                              accessor.longDistance.invokeExact(packet, key.longDistance);
+                              if (key.data != null) {
+                                    accessor.data.invokeExact(packet, key.data.getPacketData());
+                              }
+                        }
+                        accessor.x.invokeExact(packet, x);
+                        accessor.y.invokeExact(packet, y);
+                        accessor.z.invokeExact(packet, z);
+                        accessor.offsetX.invokeExact(packet, key.offsetX);
+                        accessor.offsetY.invokeExact(packet, key.offsetY);
+                        accessor.offsetZ.invokeExact(packet, key.offsetZ);
+                        accessor.speed.invokeExact(packet, key.speed);
+                        accessor.amount.invokeExact(packet, key.amount);
+                        return packet;
+                  }
+            }
+
+            /**
+             * A bounded cache of packet prototypes which evicts the least recently used prototype first and counts its hits and misses
+             */
+            private static final class PrototypeCache {
+                  private final Map<PrototypeKey, PacketPrototype> prototypes;
+                  private long hits;
+                  private long misses;
+
+                  private PrototypeCache(final int maximumSize) {
+                        this.prototypes = new LinkedHashMap<PrototypeKey, PacketPrototype>(16, 0.75F, true) {
+                              @Override
+                              protected boolean removeEldestEntry(Entry<PrototypeKey, PacketPrototype> eldest) {
+                                    return size() > maximumSize;
+                              }
+                        };
+                  }
+
+                  private synchronized PacketPrototype get(PrototypeKey key) {
+                        PacketPrototype prototype = prototypes.get(key);
+                        if (prototype != null) {
+                              ++hits;
+                              return prototype;
+                        }
+                        ++misses;
+                        prototype = new PacketPrototype(key);
+                        prototypes.put(key, prototype);
+                        return prototype;
+                  }
+
+                  private synchronized long getHits() {
+                        return hits;
+                  }
+
+                  private synchronized long getMisses() {
+                        return misses;
                   }
             }
 
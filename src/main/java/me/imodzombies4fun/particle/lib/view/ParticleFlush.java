@@ -0,0 +1,127 @@
+package me.imodzombies4fun.particle.lib.view;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides when the channels particle packets are written to get flushed
+ * <p/>
+ * Every flush is a syscall, so a player inside several effects can cost dozens of them per tick. Outside of
+ * {@link Mode#IMMEDIATE} particle packets are only written and their channels are remembered, then every remembered
+ * channel is flushed once, either at the end of the {@link me.imodzombies4fun.particle.lib.task.timed.ParticleScheduler}
+ * tick or whenever {@link #flushAll()} is called
+ * <p/>
+ * @author Connor
+ * @since 8/8/2015
+ * <p/>
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+public final class ParticleFlush {
+
+      /**
+       * When particle packets are flushed
+       */
+      public enum Mode {
+            /**
+             * Every send is flushed right away
+             */
+            IMMEDIATE,
+            /**
+             * Channels are flushed once at the end of every scheduler tick
+             */
+            END_OF_TICK,
+            /**
+             * Channels are flushed once whenever {@link #flushAll()} is called
+             */
+            MANUAL
+      }
+
+      private static volatile Mode mode = Mode.IMMEDIATE;
+
+      private static final Queue<ConnectionCache.Connection> pending = new ConcurrentLinkedQueue<>();
+      private static final AtomicLong requested = new AtomicLong();
+      private static final AtomicLong performed = new AtomicLong();
+
+      // Prevent accidental construction
+      private ParticleFlush() {
+      }
+
+      public static Mode getMode() {
+            return mode;
+      }
+
+      /**
+       * Sets when particle packets are flushed, switching to {@link Mode#IMMEDIATE} flushes all pending channels
+       *
+       * @param mode Flush mode
+       */
+      public static void setMode(Mode mode) {
+            ParticleFlush.mode = mode;
+            if (mode == Mode.IMMEDIATE) {
+                  flushAll();
+            }
+      }
+
+      /**
+       * Determine if flushes are currently deferred
+       *
+       * @return Whether sends should only write or not
+       */
+      public static boolean isDeferred() {
+            return mode != Mode.IMMEDIATE;
+      }
+
+      /**
+       * Remembers a connection which has written packets that still need a flush
+       *
+       * @param connection Connection to flush later
+       */
+      static void defer(ConnectionCache.Connection connection) {
+            requested.incrementAndGet();
+            if (connection.markPending()) {
+                  pending.add(connection);
+            }
+      }
+
+      /**
+       * Flushes every channel particle packets were written to since the last flush
+       */
+      public static void flushAll() {
+            ConnectionCache.Connection connection;
+            while ((connection = pending.poll()) != null) {
+                  connection.flushPending();
+                  performed.incrementAndGet();
+            }
+      }
+
+      /**
+       * Returns the amount of flushes that were performed for deferred sends
+       *
+       * @return The amount of flushes
+       */
+      public static long getFlushes() {
+            return performed.get();
+      }
+
+      /**
+       * Returns the amount of flushes that deferring saved compared to flushing every send
+       *
+       * @return The amount of saved flushes
+       */
+      public static long getFlushesSaved() {
+            return requested.get() - performed.get();
+      }
+}
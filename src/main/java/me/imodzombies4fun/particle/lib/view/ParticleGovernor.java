@@ -0,0 +1,260 @@
+package me.imodzombies4fun.particle.lib.view;
+
+import me.imodzombies4fun.particle.lib.task.timed.ParticleScheduler;
+import org.bukkit.entity.Player;
+
+import java.util.Arrays;
+
+/**
+ * Limits the particle traffic every player receives
+ * <p/>
+ * Each connection has a {@link Budget} of packets per tick and bytes per second. While the netty channel of a player
+ * is not writable, low priority particles are dropped and every other particle type is coalesced to one packet per tick,
+ * whether it is sent as single points or as whole frames
+ * <p/>
+ * @author Connor
+ * @since 8/8/2015
+ * <p/>
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+public final class ParticleGovernor {
+
+      private static volatile boolean enabled;
+      private static volatile int packetsPerTick;
+      private static volatile long bytesPerSecond;
+      private static volatile boolean[] lowPriority = new boolean[ParticleType.values().length];
+
+      // Prevent accidental construction
+      private ParticleGovernor() {
+      }
+
+      public static boolean isEnabled() {
+            return enabled;
+      }
+
+      public static void setEnabled(boolean enabled) {
+            ParticleGovernor.enabled = enabled;
+      }
+
+      public static int getPacketsPerTick() {
+            return packetsPerTick;
+      }
+
+      /**
+       * Sets how many particle packets a player may receive per tick
+       *
+       * @param packetsPerTick Packets per tick, 0 for no limit
+       */
+      public static void setPacketsPerTick(int packetsPerTick) {
+            if (packetsPerTick < 0) {
+                  throw new IllegalArgumentException("The packet budget is lower than 0");
+            }
+            ParticleGovernor.packetsPerTick = packetsPerTick;
+      }
+
+      public static long getBytesPerSecond() {
+            return bytesPerSecond;
+      }
+
+      /**
+       * Sets how many bytes of particle packets a player may receive per second
+       *
+       * @param bytesPerSecond Bytes per second, 0 for no limit
+       */
+      public static void setBytesPerSecond(long bytesPerSecond) {
+            if (bytesPerSecond < 0) {
+                  throw new IllegalArgumentException("The byte budget is lower than 0");
+            }
+            ParticleGovernor.bytesPerSecond = bytesPerSecond;
+      }
+
+      public static boolean isLowPriority(ParticleType type) {
+            return lowPriority[type.ordinal()];
+      }
+
+      /**
+       * Marks a particle type as low priority, so it is dropped instead of coalesced while a channel is not writable
+       *
+       * @param type        Particle type to mark
+       * @param lowPriority Whether the type is low priority or not
+       */
+      public static synchronized void setLowPriority(ParticleType type, boolean lowPriority) {
+            boolean[] next = ParticleGovernor.lowPriority.clone();
+            next[type.ordinal()] = lowPriority;
+            ParticleGovernor.lowPriority = next;
+      }
+
+      /**
+       * Returns the budget of a player, including what was shed for it
+       *
+       * @param player Owner of the budget
+       * @return The budget of the player
+       */
+      public static Budget getBudget(Player player) {
+            return ConnectionCache.get(player).getBudget();
+      }
+
+      /**
+       * Determine how many packets of a send may go over a connection
+       *
+       * @param connection Connection of the receiver
+       * @param type       Particle type of the packets
+       * @param packets    Amount of packets to send
+       * @param packetSize Estimated size of one packet in bytes
+       * @return The amount of packets to send, between 0 and <code>packets</code>
+       */
+      public static int admit(ConnectionCache.Connection connection, ParticleType type, int packets, int packetSize) {
+            if (!enabled) {
+                  return packets;
+            }
+
+            Budget budget = connection.getBudget();
+            if (!connection.isWritable()) {
+                  if (lowPriority[type.ordinal()]) {
+                        budget.drop(packets);
+                        return 0;
+                  }
+                  packets = budget.coalesce(type, packets);
+                  if (packets == 0) {
+                        return 0;
+                  }
+            }
+            return budget.take(packets, packetSize, packetsPerTick, bytesPerSecond);
+      }
+
+      /**
+       * Picks an evenly spread subset of packets, so a throttled frame keeps its outline instead of being cut off
+       *
+       * @param packets Packets of the frame
+       * @param count   Amount of packets to keep
+       * @return The kept packets
+       */
+      public static Object[] thin(Object[] packets, int count) {
+            if (count >= packets.length) {
+                  return packets;
+            }
+            Object[] kept = new Object[count];
+            for (int i = 0; i < count; i++) {
+                  // Centered in each stride, so a single kept packet is the middle of the frame rather than its first point
+                  kept[i] = packets[(int) (((long) i * 2 + 1) * packets.length / (count * 2L))];
+            }
+            return kept;
+      }
+
+      /**
+       * The packet and byte budget of a single connection together with counters of the packets that were shed
+       * <p/>
+       * The packet budget is reset every scheduler tick, the byte budget is a token bucket refilled continuously
+       */
+      public static final class Budget {
+            private static final int TYPES = ParticleType.values().length;
+
+            private long tick = -1;
+            private int packetsThisTick;
+            private long congestedTick = -1;
+            private final boolean[] sentWhileCongested = new boolean[TYPES];
+            private double bytes = -1;
+            private long lastRefill;
+            private long dropped;
+            private long coalesced;
+            private long throttled;
+
+            Budget() {
+            }
+
+            private synchronized int take(int packets, int packetSize, int packetsPerTick, long bytesPerSecond) {
+                  int allowed = packets;
+                  if (packetsPerTick > 0) {
+                        long currentTick = ParticleScheduler.getCurrentTick();
+                        if (currentTick != tick) {
+                              tick = currentTick;
+                              packetsThisTick = 0;
+                        }
+                        allowed = Math.max(0, Math.min(allowed, packetsPerTick - packetsThisTick));
+                  }
+                  if (bytesPerSecond > 0) {
+                        long now = System.nanoTime();
+                        if (bytes < 0) {
+                              bytes = bytesPerSecond;
+                        } else {
+                              bytes = Math.min(bytesPerSecond, bytes + (now - lastRefill) * bytesPerSecond / 1.0E9D);
+                        }
+                        lastRefill = now;
+                        allowed = (int) Math.min(allowed, (long) (bytes / packetSize));
+                        bytes -= (double) allowed * packetSize;
+                  }
+
+                  packetsThisTick += allowed;
+                  throttled += packets - allowed;
+                  return allowed;
+            }
+
+            /**
+             * Coalesces a send while the channel is not writable, only the first send of a type in a tick gets a packet
+             *
+             * @param type    Particle type of the packets
+             * @param packets Amount of packets to send
+             * @return 1 for the first send of the type in the current tick, otherwise 0
+             */
+            private synchronized int coalesce(ParticleType type, int packets) {
+                  long currentTick = ParticleScheduler.getCurrentTick();
+                  if (currentTick != congestedTick) {
+                        congestedTick = currentTick;
+                        Arrays.fill(sentWhileCongested, false);
+                  }
+                  int admitted = sentWhileCongested[type.ordinal()] ? 0 : 1;
+                  sentWhileCongested[type.ordinal()] = true;
+                  coalesced += packets - admitted;
+                  return admitted;
+            }
+
+            private synchronized void drop(int packets) {
+                  dropped += packets;
+            }
+
+            /**
+             * Returns the amount of low priority packets dropped while the channel was not writable
+             *
+             * @return The amount of dropped packets
+             */
+            public synchronized long getDropped() {
+                  return dropped;
+            }
+
+            /**
+             * Returns the amount of packets merged away while the channel was not writable
+             *
+             * @return The amount of coalesced packets
+             */
+            public synchronized long getCoalesced() {
+                  return coalesced;
+            }
+
+            /**
+             * Returns the amount of packets that exceeded the packet or byte budget
+             *
+             * @return The amount of throttled packets
+             */
+            public synchronized long getThrottled() {
+                  return throttled;
+            }
+
+            public synchronized void reset() {
+                  dropped = 0;
+                  coalesced = 0;
+                  throttled = 0;
+            }
+      }
+}
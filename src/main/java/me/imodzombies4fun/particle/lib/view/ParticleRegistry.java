@@ -0,0 +1,138 @@
+package me.imodzombies4fun.particle.lib.view;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Lookup tables and capability bitmasks of all {@link ParticleType}s
+ * <p/>
+ * Types are found by id through an array and by name through a hash map of lower case names. The capabilities of every
+ * type are a bitmask built once, the {@link #SUPPORTED} bit is set for the server version when
+ * {@link ParticleEngine.ParticlePacket#initialize()} runs, so checking a type while displaying it only tests bits
+ * <p/>
+ * @author Connor
+ * @since 8/8/2015
+ * <p/>
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+public final class ParticleRegistry {
+
+      public static final int DIRECTIONAL = 1;
+      public static final int COLORABLE = 1 << 1;
+      public static final int REQUIRES_DATA = 1 << 2;
+      public static final int REQUIRES_WATER = 1 << 3;
+      public static final int SUPPORTED = 1 << 4;
+
+      private static final ParticleType[] byId;
+      private static final Map<String, ParticleType> byName = new HashMap<>();
+      private static volatile int[] capabilities;
+
+      static {
+            int maximumId = 0;
+            for (ParticleType type : ParticleType.values()) {
+                  maximumId = Math.max(maximumId, type.getId());
+            }
+            byId = new ParticleType[maximumId + 1];
+            for (ParticleType type : ParticleType.values()) {
+                  byId[type.getId()] = type;
+                  byName.put(normalize(type.getName()), type);
+            }
+            capabilities = computeCapabilities(0);
+      }
+
+      // Prevent accidental construction
+      private ParticleRegistry() {
+      }
+
+      /**
+       * Recomputes the {@link #SUPPORTED} bit of every type for a server version
+       *
+       * @param version Server version (1.x)
+       */
+      static void initialize(int version) {
+            capabilities = computeCapabilities(version);
+      }
+
+      private static int[] computeCapabilities(int version) {
+            ParticleType[] types = ParticleType.values();
+            int[] computed = new int[types.length];
+            for (ParticleType type : types) {
+                  int mask = 0;
+                  if (type.hasProperty(ParticleEngine.ParticleProperty.DIRECTIONAL)) {
+                        mask |= DIRECTIONAL;
+                  }
+                  if (type.hasProperty(ParticleEngine.ParticleProperty.COLOR)) {
+                        mask |= COLORABLE;
+                  }
+                  if (type.hasProperty(ParticleEngine.ParticleProperty.REQUIRES_DATA)) {
+                        mask |= REQUIRES_DATA;
+                  }
+                  if (type.hasProperty(ParticleEngine.ParticleProperty.REQUIRES_WATER)) {
+                        mask |= REQUIRES_WATER;
+                  }
+                  if (type.getRequiredVersion() == -1 || version >= type.getRequiredVersion()) {
+                        mask |= SUPPORTED;
+                  }
+                  computed[type.ordinal()] = mask;
+            }
+            return computed;
+      }
+
+      private static String normalize(String name) {
+            return name.toLowerCase(Locale.ENGLISH);
+      }
+
+      /**
+       * Returns the particle type with the given name, ignoring its case
+       *
+       * @param name Name of the particle type
+       * @return The particle type or <code>null</code> if none has the name
+       */
+      public static ParticleType fromName(String name) {
+            return name == null ? null : byName.get(normalize(name));
+      }
+
+      /**
+       * Returns the particle type with the given id
+       *
+       * @param id Id of the particle type
+       * @return The particle type or <code>null</code> if none has the id
+       */
+      public static ParticleType fromId(int id) {
+            return id >= 0 && id < byId.length ? byId[id] : null;
+      }
+
+      /**
+       * Returns the capability bitmask of a particle type
+       *
+       * @param type Particle type
+       * @return The capabilities
+       */
+      public static int getCapabilities(ParticleType type) {
+            return capabilities[type.ordinal()];
+      }
+
+      /**
+       * Determine if a particle type has all capabilities of a mask
+       *
+       * @param type Particle type
+       * @param mask Capabilities to check
+       * @return Whether the type has all of them or not
+       */
+      public static boolean has(ParticleType type, int mask) {
+            return (capabilities[type.ordinal()] & mask) == mask;
+      }
+}
@@ -367,6 +367,7 @@ public enum ParticleType {
       protected final int id;
       protected final int requiredVersion;
       protected final List<ParticleEngine.ParticleProperty> properties;
+      private final int propertyMask;
 
       /**
        * Construct a new particle effect
@@ -381,6 +382,11 @@ public enum ParticleType {
             this.id = id;
             this.requiredVersion = requiredVersion;
             this.properties = Arrays.asList(properties);
+            int mask = 0;
+            for (ParticleEngine.ParticleProperty property : properties) {
+                  mask |= 1 << property.ordinal();
+            }
+            this.propertyMask = mask;
       }
 
       /**
@@ -416,7 +422,7 @@ public enum ParticleType {
        * @return Whether it has the property or not
        */
       public boolean hasProperty(ParticleEngine.ParticleProperty property) {
-            return properties.contains(property);
+            return (propertyMask & (1 << property.ordinal())) != 0;
       }
 
       /**
@@ -425,9 +431,6 @@ public enum ParticleType {
        * @return Whether the particle effect is supported or not
        */
       public boolean isSupported() {
-            if (requiredVersion == -1) {
-                  return true;
-            }
-            return ParticleEngine.ParticlePacket.getVersion() >= requiredVersion;
+            return ParticleRegistry.has(this, ParticleRegistry.SUPPORTED);
       }
 }
@@ -0,0 +1,295 @@
+package me.imodzombies4fun.particle.lib.view;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A spatial index of the online players, bucketing them per world into a grid of chunk sized cells
+ * <p/>
+ * Players that moved are only marked and re-bucketed once per tick by {@link #refresh(PlayerSnapshot)}, so a range query only
+ * touches the cells around its center instead of every player on the server. The grid is only used on the main thread
+ * <p/>
+ * @author Connor
+ * @since 8/8/2015
+ * <p/>
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+public class PlayerGrid implements Listener {
+
+      private static final int CELL_SHIFT = 4;
+
+      private static final Map<UUID, Entry> entries = new HashMap<>();
+      private static final Map<UUID, Map<Long, List<Entry>>> worlds = new HashMap<>();
+      private static final List<Entry> moved = new ArrayList<>();
+
+      private static volatile long epoch;
+
+      /**
+       * Adds all players that are already online, e.g. after a reload
+       */
+      public static void fill() {
+            for (Player player : Bukkit.getOnlinePlayers()) {
+                  add(player);
+            }
+      }
+
+      public static void clear() {
+            entries.clear();
+            worlds.clear();
+            moved.clear();
+            ++epoch;
+      }
+
+      /**
+       * Returns a counter which changes whenever a player joins, quits, changes worlds or moves into another cell
+       *
+       * @return The current epoch
+       * @see ReceiverSet
+       */
+      public static long getEpoch() {
+            return epoch;
+      }
+
+      /**
+       * Re-buckets every player that moved since the last refresh
+       * <p/>
+       * Positions are taken from the snapshot, players missing from it are asked for their location
+       *
+       * @param snapshot Player snapshot of the current tick, may be <code>null</code>
+       */
+      public static void refresh(PlayerSnapshot snapshot) {
+            for (int i = 0, size = moved.size(); i < size; i++) {
+                  Entry entry = moved.get(i);
+                  entry.moved = false;
+                  if (entries.get(entry.player.getUniqueId()) != entry) {
+                        continue;
+                  }
+                  int index = snapshot == null ? -1 : snapshot.indexOf(entry.player);
+                  if (index != -1) {
+                        update(entry, snapshot.getWorld(index), snapshot.getX(index), snapshot.getY(index), snapshot.getZ(index));
+                  } else {
+                        update(entry, entry.player.getLocation());
+                  }
+            }
+            moved.clear();
+      }
+
+      /**
+       * Returns all players within a range of a location
+       *
+       * @param center Center of the range
+       * @param range  Range around the center
+       * @return The players in range
+       */
+      public static List<Player> getNearby(Location center, double range) {
+            List<Player> nearby = new ArrayList<>();
+            collectNearby(center.getWorld(), center.getX(), center.getY(), center.getZ(), range, nearby);
+            return nearby;
+      }
+
+      /**
+       * Adds all players within a range of a point to a collection, only looking at the cells the range overlaps
+       *
+       * @param world  World of the point
+       * @param x      X coordinate of the point
+       * @param y      Y coordinate of the point
+       * @param z      Z coordinate of the point
+       * @param range  Range around the point
+       * @param nearby Collection the players in range are added to
+       */
+      public static void collectNearby(World world, double x, double y, double z, double range, Collection<Player> nearby) {
+            collect(world, x, y, z, range, nearby, null);
+      }
+
+      /**
+       * Adds all players within a range of a point to a region of a receiver set together with their positions
+       *
+       * @param world  World of the point
+       * @param x      X coordinate of the point
+       * @param y      Y coordinate of the point
+       * @param z      Z coordinate of the point
+       * @param range  Range around the point
+       * @param region Region the players in range are added to
+       * @see #collectNearby(World, double, double, double, double, Collection)
+       */
+      static void collectNearby(World world, double x, double y, double z, double range, ReceiverSet.Region region) {
+            collect(world, x, y, z, range, null, region);
+      }
+
+      private static void collect(World world, double x, double y, double z, double range, Collection<Player> nearby, ReceiverSet.Region region) {
+            Map<Long, List<Entry>> cells = worlds.get(world.getUID());
+            if (cells == null) {
+                  return;
+            }
+
+            double squared = range * range;
+            int minX = Location.locToBlock(x - range) >> CELL_SHIFT;
+            int maxX = Location.locToBlock(x + range) >> CELL_SHIFT;
+            int minZ = Location.locToBlock(z - range) >> CELL_SHIFT;
+            int maxZ = Location.locToBlock(z + range) >> CELL_SHIFT;
+
+            for (int cellX = minX; cellX <= maxX; cellX++) {
+                  for (int cellZ = minZ; cellZ <= maxZ; cellZ++) {
+                        List<Entry> cell = cells.get(key(cellX, cellZ));
+                        if (cell == null) {
+                              continue;
+                        }
+                        for (int i = 0, size = cell.size(); i < size; i++) {
+                              Entry entry = cell.get(i);
+                              double dx = entry.x - x;
+                              double dy = entry.y - y;
+                              double dz = entry.z - z;
+                              if (dx * dx + dy * dy + dz * dz > squared) {
+                                    continue;
+                              }
+                              if (nearby != null) {
+                                    nearby.add(entry.player);
+                              } else {
+                                    region.add(entry.player, entry.x, entry.y, entry.z);
+                              }
+                        }
+                  }
+            }
+      }
+
+      private static void add(Player player) {
+            Entry entry = new Entry(player);
+            entries.put(player.getUniqueId(), entry);
+            update(entry, player.getLocation());
+      }
+
+      private static void remove(Player player) {
+            Entry entry = entries.remove(player.getUniqueId());
+            if (entry != null && entry.world != null) {
+                  unlink(entry);
+                  ++epoch;
+            }
+      }
+
+      private static void update(Entry entry, Location location) {
+            update(entry, location.getWorld(), location.getX(), location.getY(), location.getZ());
+      }
+
+      private static void update(Entry entry, World world, double x, double y, double z) {
+            long cell = key(Location.locToBlock(x) >> CELL_SHIFT, Location.locToBlock(z) >> CELL_SHIFT);
+            entry.x = x;
+            entry.y = y;
+            entry.z = z;
+
+            if (entry.world != null && entry.world.equals(world.getUID()) && entry.cell == cell) {
+                  return;
+            }
+            if (entry.world != null) {
+                  unlink(entry);
+            }
+
+            entry.world = world.getUID();
+            entry.cell = cell;
+            ++epoch;
+
+            Map<Long, List<Entry>> cells = worlds.get(entry.world);
+            if (cells == null) {
+                  cells = new HashMap<>();
+                  worlds.put(entry.world, cells);
+            }
+            List<Entry> entriesInCell = cells.get(cell);
+            if (entriesInCell == null) {
+                  entriesInCell = new ArrayList<>(4);
+                  cells.put(cell, entriesInCell);
+            }
+            entriesInCell.add(entry);
+      }
+
+      private static void unlink(Entry entry) {
+            Map<Long, List<Entry>> cells = worlds.get(entry.world);
+            List<Entry> cell = cells.get(entry.cell);
+            cell.remove(entry);
+            if (cell.isEmpty()) {
+                  cells.remove(entry.cell);
+            }
+            entry.world = null;
+      }
+
+      private static void markMoved(Player player) {
+            Entry entry = entries.get(player.getUniqueId());
+            if (entry != null && !entry.moved) {
+                  entry.moved = true;
+                  moved.add(entry);
+            }
+      }
+
+      private static long key(int cellX, int cellZ) {
+            return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+      }
+
+      @EventHandler(priority = EventPriority.MONITOR)
+      public void onJoin(PlayerJoinEvent event) {
+            add(event.getPlayer());
+      }
+
+      @EventHandler(priority = EventPriority.MONITOR)
+      public void onQuit(PlayerQuitEvent event) {
+            remove(event.getPlayer());
+      }
+
+      @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+      public void onMove(PlayerMoveEvent event) {
+            markMoved(event.getPlayer());
+      }
+
+      @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+      public void onTeleport(PlayerTeleportEvent event) {
+            markMoved(event.getPlayer());
+      }
+
+      @EventHandler(priority = EventPriority.MONITOR)
+      public void onChangedWorld(PlayerChangedWorldEvent event) {
+            markMoved(event.getPlayer());
+      }
+
+      /**
+       * The last known position of a player and the cell it is bucketed in
+       */
+      private static final class Entry {
+            private final Player player;
+            private UUID world;
+            private long cell;
+            private double x;
+            private double y;
+            private double z;
+            private boolean moved;
+
+            private Entry(Player player) {
+                  this.player = player;
+            }
+      }
+}
@@ -0,0 +1,233 @@
+package me.imodzombies4fun.particle.lib.view;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The positions of all online players, captured on the main thread at the start of every scheduler tick
+ * <p/>
+ * Every distance check of the library reads player positions from here instead of asking the players for a new
+ * location each time, which also keeps work running off the main thread away from the players themselves
+ * <p/>
+ * @author Connor
+ * @since 8/8/2015
+ * <p/>
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+public final class PlayerSnapshot {
+
+      private static final Location location = new Location(null, 0, 0, 0);
+
+      private static volatile PlayerSnapshot current;
+
+      private final Player[] players;
+      private final World[] worlds;
+      private final double[] x;
+      private final double[] y;
+      private final double[] z;
+      private final float[] yaw;
+      private final float[] pitch;
+      private final double[] lookX;
+      private final double[] lookY;
+      private final double[] lookZ;
+      private final Map<Player, Integer> indices;
+
+      private PlayerSnapshot(Collection<? extends Player> online, PlayerSnapshot previous) {
+            int size = online.size();
+            worlds = new World[size];
+            x = new double[size];
+            y = new double[size];
+            z = new double[size];
+            yaw = new float[size];
+            pitch = new float[size];
+            lookX = new double[size];
+            lookY = new double[size];
+            lookZ = new double[size];
+
+            // Players and indices never change once built, so they are shared for as long as nobody joins or quits
+            if (previous != null && previous.hasPlayers(online)) {
+                  players = previous.players;
+                  indices = previous.indices;
+            } else {
+                  players = online.toArray(new Player[size]);
+                  indices = new HashMap<>(size * 2);
+                  for (int index = 0; index < size; index++) {
+                        indices.put(players[index], index);
+                  }
+            }
+
+            for (int index = 0; index < size; index++) {
+                  players[index].getLocation(location);
+                  worlds[index] = location.getWorld();
+                  x[index] = location.getX();
+                  y[index] = location.getY();
+                  z[index] = location.getZ();
+                  yaw[index] = location.getYaw();
+                  pitch[index] = location.getPitch();
+
+                  // The view direction, computed once per tick so culling stages never need trigonometry per point
+                  double yawRadians = Math.toRadians(yaw[index]);
+                  double pitchRadians = Math.toRadians(pitch[index]);
+                  double horizontal = Math.cos(pitchRadians);
+                  lookX[index] = -Math.sin(yawRadians) * horizontal;
+                  lookY[index] = -Math.sin(pitchRadians);
+                  lookZ[index] = Math.cos(yawRadians) * horizontal;
+            }
+      }
+
+      /**
+       * Captures the positions of all online players and makes them the current snapshot
+       * <p/>
+       * Snapshots are never changed once captured, since frames running on the pipeline may still read an older one
+       *
+       * @return The new snapshot
+       */
+      public static PlayerSnapshot capture() {
+            PlayerSnapshot snapshot = new PlayerSnapshot(Bukkit.getOnlinePlayers(), current);
+            current = snapshot;
+            return snapshot;
+      }
+
+      /**
+       * Returns the most recently captured snapshot
+       *
+       * @return The current snapshot or <code>null</code> if none is captured
+       */
+      public static PlayerSnapshot current() {
+            return current;
+      }
+
+      /**
+       * Drops the current snapshot, so positions are read from the players again
+       */
+      public static void clear() {
+            current = null;
+      }
+
+      /**
+       * Returns the index of a player in this snapshot
+       *
+       * @param player Player to look up
+       * @return The index or -1 if the player was not online when this snapshot was captured
+       */
+      public int indexOf(Player player) {
+            Integer index = indices.get(player);
+            return index == null ? -1 : index;
+      }
+
+      /**
+       * Returns the squared distance between a player and a location
+       *
+       * @param player   Player to measure from
+       * @param location Location to measure to
+       * @return The squared distance, infinity if the player is in another world or -1 if the player is not part of this snapshot
+       */
+      public double distanceSquared(Player player, Location location) {
+            return distanceSquared(player, location.getWorld(), location.getX(), location.getY(), location.getZ());
+      }
+
+      /**
+       * Returns the squared distance between a player and a point
+       *
+       * @param player Player to measure from
+       * @param world  World of the point
+       * @param x      X coordinate of the point
+       * @param y      Y coordinate of the point
+       * @param z      Z coordinate of the point
+       * @return The squared distance, infinity if the player is in another world or -1 if the player is not part of this snapshot
+       */
+      public double distanceSquared(Player player, World world, double x, double y, double z) {
+            int index = indexOf(player);
+            if (index == -1) {
+                  return -1;
+            }
+            if (worlds[index] != world) {
+                  return Double.POSITIVE_INFINITY;
+            }
+            double dx = this.x[index] - x;
+            double dy = this.y[index] - y;
+            double dz = this.z[index] - z;
+            return dx * dx + dy * dy + dz * dz;
+      }
+
+      private boolean hasPlayers(Collection<? extends Player> online) {
+            if (players.length != online.size()) {
+                  return false;
+            }
+            int index = 0;
+            for (Player player : online) {
+                  if (players[index++] != player) {
+                        return false;
+                  }
+            }
+            return true;
+      }
+
+      public int size() {
+            return players.length;
+      }
+
+      public Player getPlayer(int index) {
+            return players[index];
+      }
+
+      public World getWorld(int index) {
+            return worlds[index];
+      }
+
+      public double getX(int index) {
+            return x[index];
+      }
+
+      public double getY(int index) {
+            return y[index];
+      }
+
+      public double getZ(int index) {
+            return z[index];
+      }
+
+      public float getYaw(int index) {
+            return yaw[index];
+      }
+
+      public float getPitch(int index) {
+            return pitch[index];
+      }
+
+      /**
+       * Returns the x component of the unit vector a player is looking along
+       *
+       * @param index Index of the player
+       * @return The x component of the view direction
+       */
+      public double getLookX(int index) {
+            return lookX[index];
+      }
+
+      public double getLookY(int index) {
+            return lookY[index];
+      }
+
+      public double getLookZ(int index) {
+            return lookZ[index];
+      }
+}
@@ -0,0 +1,204 @@
+package me.imodzombies4fun.particle.lib.view;
+
+import me.imodzombies4fun.particle.lib.task.timed.ParticleScheduler;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A lazy handle on the receivers of a {@link DisplayFilter}
+ * <p/>
+ * The filter is evaluated at most once per scheduler tick, so all points of a frame share one evaluation. A regional
+ * filter is evaluated once for every 16x16x16 region it is asked for, with its range widened to cover the whole region,
+ * and every point then keeps the players within the exact range of that point. Results are dropped early whenever
+ * {@link PlayerGrid} sees a player join, quit, change worlds or move into another cell
+ * <p/>
+ * @author Connor
+ * @since 8/8/2015
+ * <p/>
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+public class ReceiverSet {
+
+      private static final int REGION_SHIFT = 4;
+      private static final double REGION_HALF_DIAGONAL = Math.sqrt(3) * (1 << REGION_SHIFT) / 2;
+      private static final int MAX_DISTINCT_RESULTS = 16;
+
+      private final DisplayFilter filter;
+      private final Object[] args;
+      private final Collection<? extends Player> fixed;
+
+      private final Map<Long, Region> resolved = new HashMap<>();
+      private Collection<? extends Player> resolvedGlobal;
+      private World resolvedWorld;
+      private long resolvedTick = -1;
+      private long resolvedEpoch = -1;
+
+      private ReceiverSet(DisplayFilter filter, Object[] args, Collection<? extends Player> fixed) {
+            this.filter = filter;
+            this.args = args;
+            this.fixed = fixed;
+      }
+
+      /**
+       * Returns a receiver set which always resolves to the given players
+       *
+       * @param players Receivers
+       * @return The receiver set
+       */
+      public static ReceiverSet of(Collection<? extends Player> players) {
+            return new ReceiverSet(null, null, players);
+      }
+
+      /**
+       * Returns a receiver set which resolves to the players a filter lets through
+       *
+       * @param filter Filter to evaluate
+       * @param args   Arguments of the filter
+       * @return The receiver set
+       */
+      public static ReceiverSet of(DisplayFilter filter, Object... args) {
+            return new ReceiverSet(filter, args, null);
+      }
+
+      /**
+       * Returns the receivers for a point, evaluating the filter only if there is no valid result for the region of the point
+       * <p/>
+       * Points with the same receivers get the same collection, so they can be sent together
+       *
+       * @param world World of the point
+       * @param x     X coordinate of the point
+       * @param y     Y coordinate of the point
+       * @param z     Z coordinate of the point
+       * @return The receivers
+       */
+      public Collection<? extends Player> resolve(World world, double x, double y, double z) {
+            if (fixed != null) {
+                  return fixed;
+            }
+
+            long tick = ParticleScheduler.getCurrentTick();
+            long epoch = PlayerGrid.getEpoch();
+            if (tick != resolvedTick || epoch != resolvedEpoch || world != resolvedWorld) {
+                  resolved.clear();
+                  resolvedGlobal = null;
+                  resolvedTick = tick;
+                  resolvedEpoch = epoch;
+                  resolvedWorld = world;
+            }
+
+            double range = filter.getRange(args);
+            if (range == DisplayFilter.NOT_REGIONAL) {
+                  if (resolvedGlobal == null) {
+                        resolvedGlobal = filter.filter(new Location(world, x, y, z), args);
+                  }
+                  return resolvedGlobal;
+            }
+
+            int regionX = Location.locToBlock(x) >> REGION_SHIFT;
+            int regionY = Location.locToBlock(y) >> REGION_SHIFT;
+            int regionZ = Location.locToBlock(z) >> REGION_SHIFT;
+            long key = ((regionX & 0x3FFFFFL) << 42) | ((regionZ & 0x3FFFFFL) << 20) | (regionY & 0xFFFFFL);
+            Region region = resolved.get(key);
+            if (region == null) {
+                  region = new Region();
+                  double half = (1 << REGION_SHIFT) / 2D;
+                  PlayerGrid.collectNearby(world, (regionX << REGION_SHIFT) + half, (regionY << REGION_SHIFT) + half,
+                          (regionZ << REGION_SHIFT) + half, range + REGION_HALF_DIAGONAL, region);
+                  resolved.put(key, region);
+            }
+            return region.resolve(x, y, z, range);
+      }
+
+      /**
+       * Returns the filter of this set
+       *
+       * @return The filter or <code>null</code> if this set has fixed receivers
+       */
+      public DisplayFilter getFilter() {
+            return filter;
+      }
+
+      /**
+       * The players within the widened range of a region together with their positions, and the distinct receiver
+       * collections its points resolved to so far
+       */
+      static final class Region {
+            private Player[] players = new Player[4];
+            private double[] positions = new double[12];
+            private int size;
+            private Collection<Player> all;
+            private final List<List<Player>> results = new ArrayList<>();
+
+            void add(Player player, double x, double y, double z) {
+                  if (size == players.length) {
+                        players = Arrays.copyOf(players, size * 2);
+                        positions = Arrays.copyOf(positions, size * 6);
+                  }
+                  players[size] = player;
+                  positions[size * 3] = x;
+                  positions[size * 3 + 1] = y;
+                  positions[size * 3 + 2] = z;
+                  ++size;
+            }
+
+            /**
+             * Returns the players within a range of a point of this region
+             *
+             * @param x     X coordinate of the point
+             * @param y     Y coordinate of the point
+             * @param z     Z coordinate of the point
+             * @param range Exact range of the filter
+             * @return The players, the same collection for points with the same players
+             */
+            private Collection<? extends Player> resolve(double x, double y, double z, double range) {
+                  double squared = range * range;
+                  List<Player> inRange = new ArrayList<>(size);
+                  for (int i = 0; i < size; i++) {
+                        double dx = positions[i * 3] - x;
+                        double dy = positions[i * 3 + 1] - y;
+                        double dz = positions[i * 3 + 2] - z;
+                        if (dx * dx + dy * dy + dz * dz <= squared) {
+                              inRange.add(players[i]);
+                        }
+                  }
+
+                  if (inRange.size() == size) {
+                        if (all == null) {
+                              all = Collections.unmodifiableList(inRange);
+                        }
+                        return all;
+                  }
+                  for (int i = 0, count = results.size(); i < count; i++) {
+                        if (results.get(i).equals(inRange)) {
+                              return results.get(i);
+                        }
+                  }
+                  List<Player> result = Collections.unmodifiableList(inRange);
+                  if (results.size() < MAX_DISTINCT_RESULTS) {
+                        results.add(result);
+                  }
+                  return result;
+            }
+      }
+}
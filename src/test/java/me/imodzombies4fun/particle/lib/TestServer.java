@@ -0,0 +1,84 @@
+package me.imodzombies4fun.particle.lib;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.entity.Player;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.logging.Logger;
+
+/**
+ * A bukkit server without players or worlds for tests that need {@link Bukkit} to be set up
+ * <p/>
+ * @author Connor
+ * @since 8/8/2015
+ * <p/>
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+public final class TestServer {
+
+      private static final Logger logger = Logger.getLogger("ParticleLibTest");
+
+      // Prevent accidental construction
+      private TestServer() {
+      }
+
+      /**
+       * Installs the test server unless a server is installed already
+       */
+      public static synchronized void install() {
+            if (Bukkit.getServer() != null) {
+                  return;
+            }
+            Bukkit.setServer((Server) Proxy.newProxyInstance(TestServer.class.getClassLoader(), new Class<?>[]{Server.class}, new InvocationHandler() {
+                  @Override
+                  public Object invoke(Object proxy, Method method, Object[] args) {
+                        switch (method.getName()) {
+                              case "getLogger":
+                                    return logger;
+                              case "getOnlinePlayers":
+                                    return Collections.<Player>emptyList();
+                              case "getWorlds":
+                                    return Collections.emptyList();
+                              case "getName":
+                                    return "TestServer";
+                              case "getVersion":
+                              case "getBukkitVersion":
+                                    return "test";
+                              case "hashCode":
+                                    return System.identityHashCode(proxy);
+                              case "equals":
+                                    return proxy == args[0];
+                              case "toString":
+                                    return "TestServer";
+                              default:
+                                    return defaultValue(method.getReturnType());
+                        }
+                  }
+            }));
+      }
+
+      private static Object defaultValue(Class<?> type) {
+            if (type == void.class || !type.isPrimitive()) {
+                  return null;
+            }
+            // The only element of a new primitive array is the default value of its type
+            return Array.get(Array.newInstance(type, 1), 0);
+      }
+}
@@ -0,0 +1,94 @@
+package me.imodzombies4fun.particle.lib.task.timed;
+
+import me.imodzombies4fun.particle.lib.TestServer;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Connor
+ * @since 8/8/2015
+ * <p/>
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+public class ParticlePipelineTest {
+
+      private final CountDownLatch release = new CountDownLatch(1);
+      private final ParticlePipeline pipeline = new ParticlePipeline(1, 1);
+
+      @BeforeClass
+      public static void installServer() {
+            TestServer.install();
+      }
+
+      @After
+      public void shutdown() {
+            release.countDown();
+            pipeline.shutdown();
+      }
+
+      @Test
+      public void droppedFrameLeavesTaskUntouched() {
+            assertTrue(pipeline.submit(new BlockingTask(), 0));
+            assertTrue(pipeline.submit(new BlockingTask(), 0));
+
+            // The worker is busy and the queue is full
+            BlockingTask dropped = new BlockingTask();
+            dropped.catchUp(CatchUpPolicy.COALESCE);
+            assertFalse(pipeline.submit(dropped, 2));
+
+            assertEquals(0, dropped.prepared);
+            assertEquals(0, dropped.skipped);
+            assertFalse(dropped.inFlight);
+            assertEquals(1, pipeline.getDroppedFrames());
+      }
+
+      /**
+       * Blocks the worker displaying it until the test finishes
+       */
+      private class BlockingTask extends ParticleTimedTask {
+            int prepared;
+            int skipped;
+
+            BlockingTask() {
+                  super(null);
+            }
+
+            @Override
+            void prepareFrame() {
+                  ++prepared;
+            }
+
+            @Override
+            protected void skip(int frames) {
+                  skipped += frames;
+            }
+
+            @Override
+            public void run() {
+                  try {
+                        release.await();
+                  } catch (InterruptedException exception) {
+                        Thread.currentThread().interrupt();
+                  }
+            }
+      }
+}
@@ -0,0 +1,110 @@
+package me.imodzombies4fun.particle.lib.task.timed;
+
+import me.imodzombies4fun.particle.lib.TestServer;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Connor
+ * @since 8/8/2015
+ * <p/>
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+public class ParticleSchedulerTest {
+
+      private final List<ParticleTimedTask> tasks = new ArrayList<>();
+
+      @BeforeClass
+      public static void installServer() {
+            TestServer.install();
+      }
+
+      @After
+      public void cancelTasks() {
+            for (ParticleTimedTask task : tasks) {
+                  ParticleScheduler.cancel(task);
+            }
+            ParticleScheduler.tick();
+      }
+
+      @Test
+      public void failingFrameKeepsOtherDueTasksScheduled() {
+            CountingTask healthy = schedule(new CountingTask(-1));
+            // Scheduled last, so it is the head of the slot and displayed first
+            CountingTask failing = schedule(new CountingTask(-1) {
+                  @Override
+                  public void run() {
+                        super.run();
+                        throw new IllegalStateException("Broken effect");
+                  }
+            });
+
+            ParticleScheduler.tick();
+            ParticleScheduler.tick();
+
+            assertEquals(2, failing.frames);
+            assertEquals(2, healthy.frames);
+      }
+
+      @Test
+      public void replayStopsOnceTaskCancelsItself() {
+            CountingTask task = new CountingTask(3);
+            task.catchUp(CatchUpPolicy.REPLAY);
+            schedule(task);
+
+            ParticleScheduler.tick();
+            // Catch up with as many frames as possible, the task cancels itself during the replay
+            task.frame(ParticleScheduler.MAX_REPLAY_FRAMES, ParticleQuality.FULL);
+            ParticleScheduler.tick();
+            ParticleScheduler.tick();
+
+            assertEquals(3, task.frames);
+      }
+
+      private <T extends ParticleTimedTask> T schedule(T task) {
+            tasks.add(task);
+            ParticleScheduler.schedule(task);
+            return task;
+      }
+
+      /**
+       * Counts its frames and cancels itself once it displayed a limit of them
+       */
+      static class CountingTask extends ParticleTimedTask {
+            private final int limit;
+            int frames;
+
+            /**
+             * @param limit Frames after which the task cancels itself, -1 to never cancel
+             */
+            CountingTask(int limit) {
+                  super(null);
+                  this.limit = limit;
+            }
+
+            @Override
+            public void run() {
+                  if (++frames == limit) {
+                        ParticleScheduler.cancel(this);
+                  }
+            }
+      }
+}
@@ -0,0 +1,82 @@
+package me.imodzombies4fun.particle.lib.view;
+
+import org.bukkit.World;
+import org.junit.After;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Connor
+ * @since 8/8/2015
+ * <p/>
+ * <p/>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+public class BlockCacheTest {
+
+      private int blockReads;
+
+      @After
+      public void clearCache() {
+            BlockCache.clear();
+            BlockCache.setLifetime(1);
+      }
+
+      @Test
+      public void blockIsReadOncePerLifetime() {
+            World world = world(true, 7);
+
+            assertEquals(7, BlockCache.getTypeId(world, 3, 64, -5));
+            assertEquals(7, BlockCache.getTypeId(world, 3, 64, -5));
+            assertEquals(1, blockReads);
+
+            BlockCache.nextTick();
+            assertEquals(7, BlockCache.getTypeId(world, 3, 64, -5));
+            assertEquals(2, blockReads);
+      }
+
+      @Test
+      public void unloadedChunkIsNeverRead() {
+            World world = world(false, 7);
+
+            assertEquals(BlockCache.UNLOADED, BlockCache.getTypeId(world, 3, 64, -5));
+            assertEquals(0, blockReads);
+      }
+
+      private World world(final boolean loaded, final int type) {
+            return (World) Proxy.newProxyInstance(BlockCacheTest.class.getClassLoader(), new Class<?>[]{World.class}, new InvocationHandler() {
+                  @Override
+                  public Object invoke(Object proxy, Method method, Object[] args) {
+                        switch (method.getName()) {
+                              case "isChunkLoaded":
+                                    return loaded;
+                              case "getBlockTypeIdAt":
+                                    ++blockReads;
+                                    return type;
+                              case "hashCode":
+                                    return System.identityHashCode(proxy);
+                              case "equals":
+                                    return proxy == args[0];
+                              default:
+                                    throw new UnsupportedOperationException(method.getName());
+                        }
+                  }
+            });
+      }
+}